@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import hudson.XmlFile;
+import hudson.model.labels.LabelAtom;
+import hudson.util.XStream2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LabelPersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int labelCount;
+
+    private Path dir;
+    private Set<LabelAtom> labels;
+    private XmlFile xmlFile;
+    private LabelAtomFile labelFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("label-persistence");
+        labels = new HashSet<>();
+        for (int i = 0; i < labelCount; ++i) {
+            labels.add(new LabelAtom("agent-" + i));
+        }
+
+        final XStream2 xstream = new XStream2();
+        xstream.registerConverter(new LabelAtomConverter(), 100);
+        xmlFile = new XmlFile(xstream, dir.resolve("config.xml").toFile());
+        labelFile = new LabelAtomFile(dir.resolve("config.keepOfflineNodes.txt"));
+        xmlFile.write(labels);
+        labelFile.write(labels);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("config.xml"));
+        Files.deleteIfExists(dir.resolve("config.keepOfflineNodes.txt"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void saveXml() throws IOException {
+        xmlFile.write(labels);
+    }
+
+    @Benchmark
+    public Object loadXml() throws IOException {
+        return xmlFile.read();
+    }
+
+    @Benchmark
+    public void saveLabelFile() throws IOException {
+        labelFile.write(labels);
+    }
+
+    @Benchmark
+    public Set<LabelAtom> loadLabelFile() throws IOException {
+        return labelFile.read(LabelAtom::new);
+    }
+
+
+    // Mirrors LabelAtom.ConverterImpl without resolving the atoms through Jenkins.
+    private static final class LabelAtomConverter implements Converter {
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean canConvert(Class type) {
+            return type == LabelAtom.class;
+        }
+
+        @Override
+        public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+            writer.setValue(((LabelAtom) source).getName());
+        }
+
+        @Override
+        public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+            return new LabelAtom(reader.getValue());
+        }
+    }
+}
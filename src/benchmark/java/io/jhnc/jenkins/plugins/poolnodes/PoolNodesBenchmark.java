@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Queue;
+import hudson.model.labels.LabelAtom;
+import hudson.model.queue.CauseOfBlockage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoolNodesBenchmark {
+    private static final Queue.BuildableItem ITEM = new Queue.BuildableItem(mock(Queue.NotWaitingItem.class));
+    private static final LabelAtom MASTER_LABEL = new LabelAtom(PoolImageLabel.MASTER.getLabelName());
+    private static final LabelAtom KEEP_OFFLINE_LABEL = new LabelAtom("keep-offline");
+
+    @Param({"100", "5000", "50000"})
+    public int nodeCount;
+
+    @Param({"10", "500"})
+    public int prefixCount;
+
+    @Param({"1", "20"})
+    public int labelCount;
+
+    private Node[] nodes;
+    private NodeNames nodeNames;
+    private PoolLabelFinder labelFinder;
+    private PoolImageBlockingDispatcher dispatcher;
+    private PoolImageBlockingDispatcher incrementalDispatcher;
+    private PoolNodeListener listener;
+    private PoolSnapshot[] snapshots;
+    private int next;
+    private int nextSnapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final PoolSnapshot.Builder builder = PoolSnapshot.builder()
+                .masterImages(prefixes("master-"))
+                .testImages(prefixes("test-"))
+                .poolLabelAtoms(Set.of(new LabelAtom("pool-label-0"), new LabelAtom("pool-label-1")))
+                .keepOffline(true);
+        final PoolSnapshot snapshot = builder.keepOfflineNodes(Set.of(KEEP_OFFLINE_LABEL)).build();
+        snapshots = new PoolSnapshot[]{snapshot, builder.keepOfflineNodes(Set.of()).build()};
+        final List<Computer> computers = new ArrayList<>(nodeCount);
+        nodes = new Node[nodeCount];
+
+        for (int i = 0; i < nodeCount; ++i) {
+            nodes[i] = createNode(i);
+            computers.add(createComputer(nodes[i]));
+        }
+
+        nodeNames = new NodeNames(TestHelper::simpleParseLabel) {
+            @Override
+            protected PoolSnapshot getSnapshot() {
+                return snapshot;
+            }
+        };
+        final Map<PoolImageLabel, Collection<LabelAtom>> imageLabels = new EnumMap<>(PoolImageLabel.class);
+        for (final PoolImageLabel image : PoolImageLabel.values()) {
+            imageLabels.put(image, Collections.singleton(new LabelAtom(image.getLabelName())));
+        }
+        labelFinder = new PoolLabelFinder(nodeNames) {
+            @Override
+            protected Collection<LabelAtom> assignedLabels(PoolImageLabel image) {
+                return imageLabels.get(image);
+            }
+        };
+        dispatcher = createDispatcher(false);
+        incrementalDispatcher = createDispatcher(true);
+        listener = new PoolNodeListener(nodeNames, new ReconciliationExecutor(0),
+                new NodeLabelIndex(TestHelper::simpleParseLabel), 0L) {
+            @Override
+            protected PoolSnapshot getSnapshot() {
+                return snapshots[nextSnapshot];
+            }
+
+            @NonNull
+            @Override
+            protected List<Computer> getComputers() {
+                return computers;
+            }
+
+            @NonNull
+            @Override
+            protected Set<LabelAtom> findPoolLabels(@CheckForNull Node node) {
+                return node == null ? Collections.emptySet() : labelFinder.findPoolLabels(node);
+            }
+
+            @Override
+            protected void resetLabels(@NonNull Set<LabelAtom> changedLabels) {
+                // No Jenkins labels to reset
+            }
+        };
+    }
+
+    @Benchmark
+    public boolean isProdNode() {
+        return nodeNames.isProdNode(nextNode());
+    }
+
+    @Benchmark
+    public Collection<LabelAtom> findLabels() {
+        return labelFinder.findLabels(nextNode());
+    }
+
+    @Benchmark
+    public CauseOfBlockage canTake() {
+        return dispatcher.canTake(nextNode(), ITEM);
+    }
+
+    @Benchmark
+    public CauseOfBlockage canTakeIncremental() {
+        return incrementalDispatcher.canTake(nextNode(), ITEM);
+    }
+
+    @Benchmark
+    public ReconciliationProgress reconcile() {
+        nextSnapshot = 1 - nextSnapshot;
+        return listener.reconcile();
+    }
+
+    private Node nextNode() {
+        next = next + 1 == nodes.length ? 0 : next + 1;
+        return nodes[next];
+    }
+
+    private PoolImageBlockingDispatcher createDispatcher(boolean incremental) {
+        return new PoolImageBlockingDispatcher(nodeNames, incremental) {
+            @Override
+            protected boolean hasMasterImageLabel(@NonNull Node node) {
+                return node.getAssignedLabels().contains(MASTER_LABEL);
+            }
+        };
+    }
+
+    private List<String> prefixes(String type) {
+        final List<String> prefixes = new ArrayList<>(prefixCount);
+        for (int i = 0; i < prefixCount; ++i) {
+            prefixes.add(type + i + "-");
+        }
+        return prefixes;
+    }
+
+    private Node createNode(int index) {
+        final List<String> labels = new ArrayList<>(labelCount + 1);
+        for (int i = 1; i < labelCount; ++i) {
+            labels.add("label-" + i);
+        }
+
+        final String name;
+        switch (index % 10) {
+            case 0:
+                name = "master-" + index % prefixCount + "-" + index;
+                break;
+            case 1:
+                name = "test-" + index % prefixCount + "-" + index;
+                break;
+            case 8:
+            case 9:
+                name = "agent-" + index;
+                labels.add("unrelated");
+                break;
+            default:
+                name = "agent-" + index;
+                labels.add("vdi-pool-prod");
+                break;
+        }
+        if (index % 100 == 2) {
+            labels.add(KEEP_OFFLINE_LABEL.getName());
+        }
+
+        final Node node = mock(Node.class, withSettings().stubOnly());
+        when(node.getNodeName()).thenReturn(name);
+        when(node.getLabelString()).thenReturn(String.join(" ", labels));
+        when(node.getAssignedLabels()).thenReturn(TestHelper.simpleParseLabel(String.join(" ", labels)));
+        return node;
+    }
+
+    private static Computer createComputer(Node node) {
+        final Computer computer = mock(Computer.class, withSettings().stubOnly());
+        when(computer.getNode()).thenReturn(node);
+        return computer;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+public final class DemandHistory {
+    static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    static final int SLOTS = (int) (TimeUnit.DAYS.toMillis(7) / SLOT_MILLIS);
+    private static final float ALPHA = 0.3f;
+    private final float[] slots = new float[SLOTS];
+    private final TimeZone timeZone;
+    private long currentSlot = -1;
+    private int peak;
+    private boolean changed;
+
+    DemandHistory() {
+        this(TimeZone.getDefault());
+    }
+
+    DemandHistory(@NonNull TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    DemandHistory(@NonNull TimeZone timeZone, @NonNull float[] slots) {
+        this(timeZone);
+        System.arraycopy(slots, 0, this.slots, 0, SLOTS);
+    }
+
+    synchronized void record(long now, int demand) {
+        final long slot = slotOf(now);
+
+        if (slot != currentSlot) {
+            if (currentSlot >= 0) {
+                final int index = indexOf(currentSlot);
+                slots[index] = ALPHA * peak + (1 - ALPHA) * slots[index];
+                changed = true;
+            }
+            currentSlot = slot;
+            peak = 0;
+        }
+        peak = Math.max(peak, demand);
+    }
+
+    synchronized int predict(long now, long leadMillis) {
+        float expected = 0;
+        for (long slot = slotOf(now); slot <= slotOf(now + leadMillis); ++slot) {
+            expected = Math.max(expected, slots[indexOf(slot)]);
+        }
+        return Math.round(expected);
+    }
+
+    synchronized float getExpected(long time) {
+        return slots[indexOf(slotOf(time))];
+    }
+
+    @NonNull
+    synchronized float[] getSlots() {
+        return slots.clone();
+    }
+
+    synchronized boolean clearChanged() {
+        final boolean result = changed;
+        changed = false;
+        return result;
+    }
+
+    private long slotOf(long time) {
+        return Math.floorDiv(time + timeZone.getOffset(time), SLOT_MILLIS);
+    }
+
+    private static int indexOf(long slot) {
+        return (int) Math.floorMod(slot, (long) SLOTS);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.AtomicFileWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class DemandHistoryFile {
+    private static final Logger LOGGER = Logger.getLogger(DemandHistoryFile.class.getName());
+    private final Path file;
+
+    public DemandHistoryFile(@NonNull Path file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    @NonNull
+    public Map<String, DemandHistory> read() throws IOException {
+        final Map<String, DemandHistory> result = new HashMap<>();
+        if (!exists()) {
+            return result;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                final String[] fields = line.split(" ");
+                if (fields.length != DemandHistory.SLOTS + 1) {
+                    LOGGER.log(Level.WARNING, "Ignoring malformed demand history of pool {0}", fields[0]);
+                    continue;
+                }
+
+                final float[] slots = new float[DemandHistory.SLOTS];
+                try {
+                    for (int i = 0; i < slots.length; ++i) {
+                        slots[i] = Float.parseFloat(fields[i + 1]);
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.WARNING, "Ignoring malformed demand history of pool " + fields[0], e);
+                    continue;
+                }
+                result.put(fields[0], new DemandHistory(TimeZone.getDefault(), slots));
+            }
+        }
+        return result;
+    }
+
+    public void write(@NonNull Map<String, DemandHistory> histories) throws IOException {
+        final AtomicFileWriter writer = new AtomicFileWriter(file, StandardCharsets.UTF_8);
+
+        try {
+            for (final Map.Entry<String, DemandHistory> entry : new TreeMap<>(histories).entrySet()) {
+                writer.write(entry.getKey());
+                for (final float slot : entry.getValue().getSlots()) {
+                    writer.write(' ');
+                    writer.write(Float.toString(slot));
+                }
+                writer.write('\n');
+            }
+            writer.commit();
+        } finally {
+            writer.abort();
+        }
+    }
+}
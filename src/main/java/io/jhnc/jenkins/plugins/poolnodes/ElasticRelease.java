@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.PeriodicWork;
+import hudson.model.Queue;
+import hudson.model.labels.LabelAtom;
+import jenkins.util.SystemProperties;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class ElasticRelease {
+    private static final Logger LOGGER = Logger.getLogger(ElasticRelease.class.getName());
+    private final Map<String, PoolRelease> pools = new HashMap<>();
+    private final Map<String, DemandHistory> histories = new HashMap<>();
+    private final Set<String> released = ConcurrentHashMap.newKeySet();
+    private boolean historiesChanged;
+
+    public boolean isReleased(@CheckForNull String nodeName) {
+        return nodeName != null && !released.isEmpty() && released.contains(nodeName);
+    }
+
+    @NonNull
+    public Set<String> getReleasedNodes() {
+        return Collections.unmodifiableSet(released);
+    }
+
+    synchronized boolean isEmpty() {
+        return pools.isEmpty();
+    }
+
+    @CheckForNull
+    synchronized DemandHistory getHistory(@NonNull String poolName) {
+        return histories.get(poolName);
+    }
+
+    synchronized void restoreHistories(@NonNull Map<String, DemandHistory> restored) {
+        restored.forEach(histories::putIfAbsent);
+    }
+
+    synchronized void retainHistories(@NonNull Collection<String> poolNames) {
+        historiesChanged |= histories.keySet().retainAll(poolNames);
+    }
+
+    @CheckForNull
+    synchronized Map<String, DemandHistory> getChangedHistories() {
+        boolean changed = historiesChanged;
+        for (final DemandHistory history : histories.values()) {
+            changed = history.clearChanged() || changed;
+        }
+        historiesChanged = false;
+        return changed ? new HashMap<>(histories) : null;
+    }
+
+    @NonNull
+    static Map<String, Demand> sample(@NonNull Collection<? extends Queue.Item> items,
+                                      @NonNull PoolSnapshot snapshot) {
+        final Map<LabelAtom, String> poolsByLabel = new HashMap<>();
+        for (final NodePool pool : snapshot.getPools()) {
+            for (final LabelAtom label : pool.getPoolLabelAtoms()) {
+                poolsByLabel.putIfAbsent(label, pool.getName());
+            }
+        }
+        if (poolsByLabel.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Demand> result = new HashMap<>();
+        for (final Queue.Item item : items) {
+            final String poolName = findPool(item.getAssignedLabel(), poolsByLabel);
+            if (poolName != null) {
+                result.computeIfAbsent(poolName, k -> new Demand()).add(item.getInQueueSince());
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    synchronized Set<String> update(@NonNull ReleasePolicy policy, @NonNull Map<String, List<Computer>> candidates,
+                                    @NonNull Map<String, Demand> demand, long now) {
+        final Set<String> changed = new HashSet<>();
+        final Iterator<Map.Entry<String, PoolRelease>> states = pools.entrySet().iterator();
+
+        while (states.hasNext()) {
+            final Map.Entry<String, PoolRelease> state = states.next();
+            if (!policy.isElastic() || !candidates.containsKey(state.getKey())) {
+                changed.addAll(state.getValue().released);
+                released.removeAll(state.getValue().released);
+                states.remove();
+            }
+        }
+
+        if (policy.isElastic()) {
+            candidates.forEach((poolName, computers) -> {
+                final PoolRelease state = pools.computeIfAbsent(poolName, k -> new PoolRelease());
+                final DemandHistory history = histories.computeIfAbsent(poolName, k -> new DemandHistory());
+                final int target = target(state, computers, demand.get(poolName), history, policy, now);
+                if (target != state.released.size()) {
+                    LOGGER.log(Level.FINE, "Releasing {0} of {1} agents of pool {2}",
+                            new Object[]{target, computers.size(), poolName});
+                }
+                resize(state, computers, target, changed);
+            });
+        }
+        return changed;
+    }
+
+    private static int target(@NonNull PoolRelease state, @NonNull List<Computer> computers,
+                              @CheckForNull Demand demand, @NonNull DemandHistory history,
+                              @NonNull ReleasePolicy policy, long now) {
+        final long targetWait = TimeUnit.SECONDS.toMillis(policy.getElasticTargetWaitSeconds());
+        final long cooldown = TimeUnit.SECONDS.toMillis(policy.getElasticCooldownSeconds());
+        final int busy = countBusy(state, computers);
+        final int queued = demand != null && demand.getOldestWait(now) >= targetWait ? demand.getWaiting() : 0;
+        final int predicted = policy.isPrewarming()
+                ? history.predict(now, TimeUnit.MINUTES.toMillis(policy.getElasticPrewarmMinutes()))
+                : 0;
+        final int wanted = Math.min(computers.size(), Math.max(busy + queued, predicted));
+        final int current = state.released.size();
+
+        history.record(now, busy + (demand == null ? 0 : demand.getWaiting()));
+
+        if (wanted >= current || demand != null) {
+            state.lastDemand = now;
+        }
+        if (wanted >= current || now - state.lastDemand >= cooldown) {
+            return wanted;
+        }
+        return current;
+    }
+
+    private void resize(@NonNull PoolRelease state, @NonNull List<Computer> computers, int target,
+                        @NonNull Set<String> changed) {
+        final Set<String> names = new HashSet<>();
+        for (final Computer computer : computers) {
+            names.add(computer.getName());
+        }
+        for (final Iterator<String> it = state.released.iterator(); it.hasNext(); ) {
+            final String name = it.next();
+            if (!names.contains(name)) {
+                it.remove();
+                park(name, changed);
+            }
+        }
+
+        for (final Computer computer : computers) {
+            if (state.released.size() >= target) {
+                break;
+            }
+            if (state.released.add(computer.getName())) {
+                released.add(computer.getName());
+                changed.add(computer.getName());
+            }
+        }
+
+        for (final boolean idle : new boolean[]{true, false}) {
+            for (final Computer computer : computers) {
+                if (state.released.size() <= target) {
+                    return;
+                }
+                if (computer.isIdle() == idle && state.released.remove(computer.getName())) {
+                    park(computer.getName(), changed);
+                }
+            }
+        }
+    }
+
+    private void park(@NonNull String name, @NonNull Set<String> changed) {
+        released.remove(name);
+        changed.add(name);
+    }
+
+    private static int countBusy(@NonNull PoolRelease state, @NonNull List<Computer> computers) {
+        int busy = 0;
+        for (final Computer computer : computers) {
+            if (state.released.contains(computer.getName()) && !computer.isIdle()) {
+                ++busy;
+            }
+        }
+        return busy;
+    }
+
+    @CheckForNull
+    private static String findPool(@CheckForNull Label label, @NonNull Map<LabelAtom, String> poolsByLabel) {
+        if (label == null) {
+            return null;
+        }
+
+        for (final LabelAtom atom : label.listAtoms()) {
+            final String poolName = poolsByLabel.get(atom);
+            if (poolName != null) {
+                return poolName;
+            }
+        }
+        return null;
+    }
+
+
+    static final class Demand {
+        private int waiting;
+        private long oldestSince = Long.MAX_VALUE;
+
+        void add(long inQueueSince) {
+            ++waiting;
+            oldestSince = Math.min(oldestSince, inQueueSince);
+        }
+
+        int getWaiting() {
+            return waiting;
+        }
+
+        long getOldestWait(long now) {
+            return waiting == 0 ? 0 : Math.max(0, now - oldestSince);
+        }
+    }
+
+
+    private static final class PoolRelease {
+        private final Set<String> released = new LinkedHashSet<>();
+        private long lastDemand;
+    }
+
+
+    @Extension
+    public static class Monitor extends PeriodicWork {
+        private static final long RECURRENCE_PERIOD = SystemProperties.getLong(
+                Monitor.class.getName() + ".recurrencePeriod", TimeUnit.SECONDS.toMillis(15));
+
+        @Override
+        public long getRecurrencePeriod() {
+            return RECURRENCE_PERIOD;
+        }
+
+        @Override
+        protected void doRun() {
+            for (final PoolNodeListener listener : ExtensionList.lookup(PoolNodeListener.class)) {
+                listener.sampleDemand();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public final class ImagePatterns<T> {
+    private static final Logger LOGGER = Logger.getLogger(ImagePatterns.class.getName());
+    private static final String REGEX_PREFIX = "re:";
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final ImagePatterns<?> EMPTY = new ImagePatterns<>(null, new int[0], new ArrayList<>(),
+            new ArrayList<>());
+    private final Pattern pattern;
+    private final int[] groups;
+    private final List<T> values;
+    private final List<Pattern> separate;
+
+    private ImagePatterns(@CheckForNull Pattern pattern, @NonNull int[] groups, @NonNull List<T> values,
+                          @NonNull List<Pattern> separate) {
+        this.pattern = pattern;
+        this.groups = groups;
+        this.values = values;
+        this.separate = separate;
+    }
+
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <T> ImagePatterns<T> empty() {
+        return (ImagePatterns<T>) EMPTY;
+    }
+
+    @NonNull
+    public static <T> ImagePatterns<T> compile(@NonNull List<Map.Entry<String, T>> entries) {
+        final StringBuilder combined = new StringBuilder();
+        final List<Integer> groups = new ArrayList<>();
+        final List<T> values = new ArrayList<>();
+        final List<Pattern> separate = new ArrayList<>();
+        int group = 1;
+
+        for (final Map.Entry<String, T> entry : entries) {
+            if (validate(entry.getKey()) != null) {
+                LOGGER.log(Level.WARNING, "Ignoring invalid image pattern ''{0}''", entry.getKey());
+                continue;
+            }
+
+            final String regex = toRegex(entry.getKey());
+            final Pattern compiled = Pattern.compile(regex, FLAGS);
+            combined.append(combined.length() == 0 ? "" : "|").append('(').append(regex).append(')');
+            groups.add(group);
+            values.add(entry.getValue());
+            separate.add(compiled);
+            group += compiled.matcher("").groupCount() + 1;
+        }
+
+        if (values.isEmpty()) {
+            return empty();
+        }
+        try {
+            return new ImagePatterns<>(Pattern.compile(combined.toString(), FLAGS),
+                    groups.stream().mapToInt(Integer::intValue).toArray(), values, List.of());
+        } catch (PatternSyntaxException e) {
+            LOGGER.log(Level.WARNING, "Image patterns cannot be combined, matching them one by one", e);
+            return new ImagePatterns<>(null, new int[0], values, separate);
+        }
+    }
+
+    public static boolean isPattern(@CheckForNull String entry) {
+        return entry != null && (entry.startsWith(REGEX_PREFIX) || entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0);
+    }
+
+    @CheckForNull
+    public static String validate(@CheckForNull String entry) {
+        if (!isPattern(entry)) {
+            return null;
+        }
+
+        final String regex = toRegex(entry);
+        try {
+            Pattern.compile(regex, FLAGS);
+        } catch (PatternSyntaxException e) {
+            return e.getDescription();
+        }
+        return validateGroups(regex);
+    }
+
+    @CheckForNull
+    public static String validateAll(@NonNull Collection<String> entries) {
+        final StringBuilder combined = new StringBuilder();
+        for (final String entry : entries) {
+            final String error = validate(entry);
+            if (error != null) {
+                return error;
+            }
+            if (isPattern(entry)) {
+                combined.append(combined.length() == 0 ? "" : "|").append('(').append(toRegex(entry)).append(')');
+            }
+        }
+        try {
+            Pattern.compile(combined.toString(), FLAGS);
+            return null;
+        } catch (PatternSyntaxException e) {
+            return e.getDescription();
+        }
+    }
+
+    public boolean isEmpty() {
+        return pattern == null && separate.isEmpty();
+    }
+
+    @CheckForNull
+    public T find(@CheckForNull CharSequence str) {
+        if (str == null) {
+            return null;
+        }
+        if (pattern == null) {
+            return findSeparately(str);
+        }
+
+        final Matcher matcher = pattern.matcher(str);
+        if (!matcher.matches()) {
+            return null;
+        }
+        for (int i = 0; i < groups.length; ++i) {
+            if (matcher.start(groups[i]) >= 0) {
+                return values.get(i);
+            }
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private T findSeparately(@NonNull CharSequence str) {
+        for (int i = 0; i < separate.size(); ++i) {
+            if (separate.get(i).matcher(str).matches()) {
+                return values.get(i);
+            }
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private static String validateGroups(@NonNull String regex) {
+        for (int i = 0; i < regex.length(); ++i) {
+            final char c = regex.charAt(i);
+            if (c == '\\' && i + 1 < regex.length()) {
+                final char next = regex.charAt(++i);
+                if (next == 'Q') {
+                    final int end = regex.indexOf("\\E", i);
+                    i = end < 0 ? regex.length() : end + 1;
+                } else if (next == 'k' || next >= '1' && next <= '9') {
+                    return Messages.ImagePatterns_backreference();
+                }
+            } else if (c == '(' && regex.startsWith("?<", i + 1) && i + 3 < regex.length()
+                    && Character.isLetter(regex.charAt(i + 3))) {
+                return Messages.ImagePatterns_namedGroup();
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    static String toRegex(@NonNull String entry) {
+        if (entry.startsWith(REGEX_PREFIX)) {
+            return entry.substring(REGEX_PREFIX.length());
+        }
+
+        final StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < entry.length(); ++i) {
+            final char c = entry.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(entry.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < entry.length()) {
+            regex.append(Pattern.quote(entry.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Node;
+import jenkins.model.NodeListener;
+import jenkins.util.SystemProperties;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class ImageTypeCache {
+    static final ImageTypeCache INSTANCE = new ImageTypeCache(
+            SystemProperties.getInteger(ImageTypeCache.class.getName() + ".maxSize", 50_000));
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    ImageTypeCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @CheckForNull
+    Entry get(@NonNull String nodeName, @CheckForNull String labelString, long generation) {
+        final Entry entry = entries.get(nodeName);
+        return entry != null && entry.isValidFor(labelString, generation) ? entry : null;
+    }
+
+    void put(@NonNull String nodeName, @CheckForNull String labelString, long generation,
+             @CheckForNull PoolAssignment assignment) {
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        entries.put(nodeName, new Entry(labelString, generation, assignment));
+    }
+
+    void invalidate(@NonNull String nodeName) {
+        entries.remove(nodeName);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+
+    static final class Entry {
+        private final String labelString;
+        private final long generation;
+        private final PoolAssignment assignment;
+
+        Entry(@CheckForNull String labelString, long generation, @CheckForNull PoolAssignment assignment) {
+            this.labelString = labelString;
+            this.generation = generation;
+            this.assignment = assignment;
+        }
+
+        @CheckForNull
+        PoolAssignment getAssignment() {
+            return assignment;
+        }
+
+        @CheckForNull
+        PoolImageLabel getImageType() {
+            return assignment == null ? null : assignment.getImageType();
+        }
+
+        private boolean isValidFor(@CheckForNull String labelString, long generation) {
+            return this.generation == generation && Objects.equals(this.labelString, labelString);
+        }
+    }
+
+
+    @Extension
+    public static class Invalidator extends NodeListener {
+        @Override
+        protected void onCreated(@NonNull Node node) {
+            INSTANCE.invalidate(node.getNodeName());
+        }
+
+        @Override
+        protected void onUpdated(@NonNull Node oldOne, @NonNull Node newOne) {
+            INSTANCE.invalidate(oldOne.getNodeName());
+            INSTANCE.invalidate(newOne.getNodeName());
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            INSTANCE.invalidate(node.getNodeName());
+        }
+    }
+}
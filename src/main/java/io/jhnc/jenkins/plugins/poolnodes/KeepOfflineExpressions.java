@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import jenkins.util.SystemProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+public final class KeepOfflineExpressions {
+    private static final int MAX_CACHED_NODES = SystemProperties.getInteger(
+            KeepOfflineExpressions.class.getName() + ".maxCachedNodes", 50_000);
+    private static final KeepOfflineExpressions EMPTY = new KeepOfflineExpressions(Collections.emptyMap(), 0);
+    private static final Pattern OPERATOR = Pattern.compile("&&|\\|\\||!|->|\\(|\\)");
+    private final Map<String, Label> expressions;
+    private final ConcurrentMap<String, Result> results = new ConcurrentHashMap<>();
+    private final int maxCachedNodes;
+
+    private KeepOfflineExpressions(@NonNull Map<String, Label> expressions, int maxCachedNodes) {
+        this.expressions = expressions;
+        this.maxCachedNodes = maxCachedNodes;
+    }
+
+    @NonNull
+    public static KeepOfflineExpressions compile(@CheckForNull Collection<Label> expressions) {
+        return compile(expressions, MAX_CACHED_NODES);
+    }
+
+    @NonNull
+    static KeepOfflineExpressions compile(@CheckForNull Collection<Label> expressions, int maxCachedNodes) {
+        if (expressions == null || expressions.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Map<String, Label> compiled = new LinkedHashMap<>();
+        for (final Label expression : expressions) {
+            if (expression != null) {
+                compiled.putIfAbsent(expression.getExpression(), expression);
+            }
+        }
+        return compiled.isEmpty() ? EMPTY : new KeepOfflineExpressions(Collections.unmodifiableMap(compiled),
+                maxCachedNodes);
+    }
+
+    @NonNull
+    public static KeepOfflineExpressions empty() {
+        return EMPTY;
+    }
+
+    public static boolean isExpression(@CheckForNull String entry) {
+        return entry != null && OPERATOR.matcher(entry).find();
+    }
+
+    @CheckForNull
+    static Set<LabelAtom> requiredLabels(@CheckForNull Label expression) {
+        if (expression == null || expression.matches(Collections.<LabelAtom>emptySet())) {
+            return null;
+        }
+        return expression.listAtoms();
+    }
+
+    public boolean isEmpty() {
+        return expressions.isEmpty();
+    }
+
+    @NonNull
+    public Set<String> getExpressions() {
+        return expressions.keySet();
+    }
+
+    public boolean hasSameExpressions(@NonNull KeepOfflineExpressions other) {
+        return expressions.keySet().equals(other.expressions.keySet());
+    }
+
+    public boolean matches(@CheckForNull Node node) {
+        if (node == null || expressions.isEmpty()) {
+            return false;
+        }
+
+        final String nodeName = node.getNodeName();
+        final String labelString = node.getLabelString();
+        final Result cached = results.get(nodeName);
+
+        if (cached != null && Objects.equals(cached.labelString, labelString)) {
+            return cached.matches;
+        }
+
+        final boolean matches = evaluate(node.getAssignedLabels());
+        if (results.size() >= maxCachedNodes) {
+            results.clear();
+        }
+        results.put(nodeName, new Result(labelString, matches));
+        return matches;
+    }
+
+    @NonNull
+    public List<String> matching(@CheckForNull Node node) {
+        if (node == null || !matches(node)) {
+            return Collections.emptyList();
+        }
+
+        final Set<LabelAtom> labels = node.getAssignedLabels();
+        final List<String> result = new ArrayList<>();
+        for (final Map.Entry<String, Label> expression : expressions.entrySet()) {
+            if (expression.getValue().matches(labels)) {
+                result.add(expression.getKey());
+            }
+        }
+        return result;
+    }
+
+    int cachedNodes() {
+        return results.size();
+    }
+
+    private boolean evaluate(@NonNull Set<LabelAtom> labels) {
+        for (final Label expression : expressions.values()) {
+            if (expression.matches(labels)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static final class Result {
+        private final String labelString;
+        private final boolean matches;
+
+        Result(@CheckForNull String labelString, boolean matches) {
+            this.labelString = labelString;
+            this.matches = matches;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+public final class KeepOfflineJournal {
+    private static final char ADD = '+';
+    private static final char REMOVE = '-';
+    private final Path file;
+    private int size;
+
+    public KeepOfflineJournal(@NonNull Path file) {
+        this.file = file;
+    }
+
+    public synchronized int append(@NonNull String entry, boolean add) throws IOException {
+        if (entry.indexOf('\n') >= 0 || entry.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Journal entries must not contain line breaks");
+        }
+        Files.writeString(file, (add ? ADD : REMOVE) + entry + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return ++size;
+    }
+
+    public synchronized void replay(@NonNull BiConsumer<String, Boolean> consumer) throws IOException {
+        size = 0;
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.length() > 1 && (line.charAt(0) == ADD || line.charAt(0) == REMOVE)) {
+                    consumer.accept(line.substring(1), line.charAt(0) == ADD);
+                    ++size;
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        Files.deleteIfExists(file);
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.RootAction;
+import hudson.security.Permission;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+@Extension
+public class KeepOfflineNodeAction implements RootAction {
+    @CheckForNull
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.KeepOfflineNodeAction_displayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "pool-keep-offline";
+    }
+
+    @RequirePOST
+    public HttpResponse doAdd(@QueryParameter String entry) {
+        return updateKeepOfflineNode(entry, true);
+    }
+
+    @RequirePOST
+    public HttpResponse doRemove(@QueryParameter String entry) {
+        return updateKeepOfflineNode(entry, false);
+    }
+
+    protected PoolNodeListener getListener() {
+        return ExtensionList.lookupSingleton(PoolNodeListener.class);
+    }
+
+    protected void checkPermission(@NonNull Permission permission) {
+        Jenkins.get().checkPermission(permission);
+    }
+
+    @NonNull
+    private HttpResponse updateKeepOfflineNode(@CheckForNull String entry, boolean add) {
+        checkPermission(Jenkins.ADMINISTER);
+        try {
+            final String checked = PoolConfiguration.DescriptorImpl.checkKeepOfflineEntry(entry);
+            final PoolNodeListener listener = getListener();
+            final boolean changed = add ? listener.addKeepOfflineNode(checked)
+                    : listener.removeKeepOfflineNode(checked);
+            return HttpResponses.plainText(changed ? "updated" : "unchanged");
+        } catch (IllegalArgumentException e) {
+            return HttpResponses.errorWithoutStack(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+}
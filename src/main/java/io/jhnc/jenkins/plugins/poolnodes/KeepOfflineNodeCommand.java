@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.cli.CLICommand;
+import jenkins.model.Jenkins;
+import org.kohsuke.args4j.Argument;
+
+import java.util.List;
+
+@Extension
+public class KeepOfflineNodeCommand extends CLICommand {
+    @Argument(index = 0, metaVar = "OPERATION", required = true, usage = "add or remove")
+    public Operation operation;
+
+    @Argument(index = 1, metaVar = "ENTRY", required = true, multiValued = true,
+            usage = "Agent name, label or label expression")
+    public List<String> entries;
+
+    @Override
+    public String getShortDescription() {
+        return Messages.KeepOfflineNodeCommand_shortDescription();
+    }
+
+    @Override
+    protected int run() {
+        checkPermission();
+        final PoolNodeListener listener = getListener();
+
+        for (final String entry : entries) {
+            final boolean changed = operation == Operation.ADD
+                    ? listener.addKeepOfflineNode(entry)
+                    : listener.removeKeepOfflineNode(entry);
+            stdout.println((changed ? "updated: " : "unchanged: ") + entry);
+        }
+        return 0;
+    }
+
+    protected void checkPermission() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+    }
+
+    protected PoolNodeListener getListener() {
+        return ExtensionList.lookupSingleton(PoolNodeListener.class);
+    }
+
+
+    public enum Operation {
+        ADD,
+        REMOVE
+    }
+}
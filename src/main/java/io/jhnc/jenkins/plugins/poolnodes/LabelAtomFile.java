@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.labels.LabelAtom;
+import hudson.util.AtomicFileWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+public final class LabelAtomFile {
+    private final Path file;
+
+    public LabelAtomFile(@NonNull Path file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    @NonNull
+    public Set<LabelAtom> read(@NonNull Function<String, LabelAtom> factory) throws IOException {
+        final Set<LabelAtom> result = new HashSet<>();
+        if (!exists()) {
+            return result;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    result.add(factory.apply(line));
+                }
+            }
+        }
+        return result;
+    }
+
+    public void write(@CheckForNull Collection<LabelAtom> labels) throws IOException {
+        final String[] names = Objects.<Collection<LabelAtom>>requireNonNullElse(labels, Collections.emptySet())
+                .stream()
+                .map(LabelAtom::getName)
+                .sorted()
+                .toArray(String[]::new);
+        final AtomicFileWriter writer = new AtomicFileWriter(file, StandardCharsets.UTF_8);
+
+        try {
+            for (final String name : names) {
+                writer.write(name);
+                writer.write('\n');
+            }
+            writer.commit();
+        } finally {
+            writer.abort();
+        }
+    }
+}
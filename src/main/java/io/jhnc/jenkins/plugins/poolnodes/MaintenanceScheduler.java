@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.labels.LabelAtom;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class MaintenanceScheduler {
+    private static final Logger LOGGER = Logger.getLogger(MaintenanceScheduler.class.getName());
+    private final PriorityQueue<Edge> edges = new PriorityQueue<>(Comparator.comparingLong(edge -> edge.time));
+    private final Set<MaintenanceWindow> active = new HashSet<>();
+    private final LongSupplier clock;
+    private final Supplier<ScheduledExecutorService> timer;
+    private final Consumer<List<MaintenanceWindow>> onEdge;
+    private long generation = -1;
+    private long version;
+    private ScheduledFuture<?> next;
+    private PoolSnapshot base;
+    private PoolSnapshot overlay;
+    private long overlayVersion = -1;
+
+    MaintenanceScheduler(@NonNull LongSupplier clock, @NonNull Supplier<ScheduledExecutorService> timer,
+                         @NonNull Consumer<List<MaintenanceWindow>> onEdge) {
+        this.clock = clock;
+        this.timer = timer;
+        this.onEdge = onEdge;
+    }
+
+    @NonNull
+    synchronized PoolSnapshot apply(@NonNull PoolSnapshot snapshot) {
+        if (snapshot.getConfigurationGeneration() != generation) {
+            reset(snapshot.getMaintenanceWindows());
+            generation = snapshot.getConfigurationGeneration();
+        }
+        if (active.isEmpty()) {
+            return snapshot;
+        }
+        if (overlay == null || base != snapshot || overlayVersion != version) {
+            overlay = createOverlay(snapshot);
+            base = snapshot;
+            overlayVersion = version;
+        }
+        return overlay;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int getActiveWindows() {
+        return active.size();
+    }
+
+    synchronized int getPendingEdges() {
+        return edges.size();
+    }
+
+    void fire() {
+        final List<MaintenanceWindow> changed = new ArrayList<>();
+        synchronized (this) {
+            final long now = clock.getAsLong();
+
+            while (!edges.isEmpty() && edges.peek().time <= now) {
+                final Edge edge = edges.poll();
+                if (edge.start ? active.add(edge.window)
+                        : !edge.window.isActiveAt(now) && active.remove(edge.window)) {
+                    changed.add(edge.window);
+                }
+                enqueue(edge.window, now);
+            }
+            if (changed.isEmpty()) {
+                scheduleNext();
+                return;
+            }
+            ++version;
+            scheduleNext();
+            LOGGER.log(Level.FINE, "Maintenance windows changed, {0} active", active.size());
+        }
+        onEdge.accept(changed);
+    }
+
+    private void reset(@NonNull List<MaintenanceWindow> windows) {
+        final long now = clock.getAsLong();
+        final Set<MaintenanceWindow> previous = new HashSet<>(active);
+
+        edges.clear();
+        active.clear();
+        for (final MaintenanceWindow window : windows) {
+            if (window.isActiveAt(now)) {
+                active.add(window);
+            }
+            enqueue(window, now);
+        }
+        if (!previous.equals(active)) {
+            ++version;
+        }
+        scheduleNext();
+    }
+
+    private void enqueue(@NonNull MaintenanceWindow window, long now) {
+        if (active.contains(window)) {
+            edges.add(new Edge(window.getEnd(now), window, false));
+        } else {
+            final long start = window.getNextStart(now);
+            if (start != Long.MAX_VALUE) {
+                edges.add(new Edge(start, window, true));
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        if (!edges.isEmpty()) {
+            final long delay = Math.max(0, edges.peek().time - clock.getAsLong());
+            next = timer.get().schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @NonNull
+    private PoolSnapshot createOverlay(@NonNull PoolSnapshot snapshot) {
+        boolean keepAllOffline = false;
+        final Set<LabelAtom> keepOfflineNodes = new HashSet<>(snapshot.getGlobalKeepOfflineNodes());
+
+        for (final MaintenanceWindow window : active) {
+            if (window.isPoolWide()) {
+                keepAllOffline = true;
+            } else {
+                keepOfflineNodes.add(window.getTarget());
+            }
+        }
+        return snapshot.withKeepOffline(keepAllOffline, keepOfflineNodes);
+    }
+
+
+    private static final class Edge {
+        private final long time;
+        private final MaintenanceWindow window;
+        private final boolean start;
+
+        Edge(long time, @NonNull MaintenanceWindow window, boolean start) {
+            this.time = time;
+            this.window = window;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.labels.LabelAtom;
+import hudson.scheduler.CronTab;
+import hudson.scheduler.Hash;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public final class MaintenanceWindow {
+    private static final String POOL_TARGET = "*";
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private final String spec;
+    private final LabelAtom target;
+    private final long durationMillis;
+    private final CronTab cronTab;
+
+    private MaintenanceWindow(@NonNull String spec, @CheckForNull LabelAtom target, long durationMillis,
+                              @NonNull CronTab cronTab) {
+        this.spec = spec;
+        this.target = target;
+        this.durationMillis = durationMillis;
+        this.cronTab = cronTab;
+    }
+
+    @NonNull
+    public static MaintenanceWindow parse(@NonNull String line) {
+        final String[] parts = line.trim().split("\\s+", 3);
+
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Expected '<agent or label|*> <minutes> <cron>': " + line);
+        }
+
+        final long minutes;
+        try {
+            minutes = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration: " + parts[1], e);
+        }
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + parts[1]);
+        }
+
+        final LabelAtom target = POOL_TARGET.equals(parts[0]) ? null : new LabelAtom(parts[0]);
+        return new MaintenanceWindow(line.trim(), target, TimeUnit.MINUTES.toMillis(minutes),
+                new CronTab(parts[2], Hash.from(line.trim())));
+    }
+
+    @NonNull
+    public static List<MaintenanceWindow> parseAll(@CheckForNull String lines) {
+        if (lines == null || lines.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        final List<MaintenanceWindow> windows = new ArrayList<>();
+        for (final String line : lines.split("\\R")) {
+            if (!line.isBlank()) {
+                windows.add(parse(line));
+            }
+        }
+        return windows;
+    }
+
+    public boolean isPoolWide() {
+        return target == null;
+    }
+
+    @CheckForNull
+    public LabelAtom getTarget() {
+        return target;
+    }
+
+    @NonNull
+    public String getSpec() {
+        return spec;
+    }
+
+    boolean isActiveAt(long time) {
+        return getEnd(time) > time;
+    }
+
+    long getEnd(long time) {
+        final Calendar start = floor(time);
+        return start == null ? Long.MIN_VALUE : start.getTimeInMillis() + durationMillis;
+    }
+
+    long getNextStart(long time) {
+        final Calendar start = ceil((Math.floorDiv(time, MINUTE) + 1) * MINUTE);
+        return start == null ? Long.MAX_VALUE : start.getTimeInMillis();
+    }
+
+    @CheckForNull
+    private Calendar floor(long time) {
+        try {
+            return cronTab.floor(time);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @CheckForNull
+    private Calendar ceil(long time) {
+        try {
+            return cronTab.ceil(time);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
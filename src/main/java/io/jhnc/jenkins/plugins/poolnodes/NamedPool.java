@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Describable;
+import hudson.model.Label;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import java.util.Objects;
+
+public class NamedPool implements Describable<NamedPool> {
+    private final String name;
+    private String labelPrefix;
+    private String poolLabels;
+    private String masterImages;
+    private String testImages;
+    private boolean keepOffline;
+    private String keepOfflineNodes;
+
+    @DataBoundConstructor
+    public NamedPool(@CheckForNull String name) {
+        this.name = trim(name);
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public String getLabelPrefix() {
+        return trim(labelPrefix);
+    }
+
+    @DataBoundSetter
+    public void setLabelPrefix(@CheckForNull String labelPrefix) {
+        this.labelPrefix = trim(labelPrefix);
+    }
+
+    @NonNull
+    public String getEffectiveLabelPrefix() {
+        final String prefix = getLabelPrefix();
+        return prefix.isEmpty() ? NodePool.DEFAULT_LABEL_PREFIX + "-" + name : prefix;
+    }
+
+    @NonNull
+    public String getPoolLabels() {
+        return trim(poolLabels);
+    }
+
+    @DataBoundSetter
+    public void setPoolLabels(@CheckForNull String poolLabels) {
+        this.poolLabels = trim(poolLabels);
+    }
+
+    @NonNull
+    public String getMasterImages() {
+        return trim(masterImages);
+    }
+
+    @DataBoundSetter
+    public void setMasterImages(@CheckForNull String masterImages) {
+        this.masterImages = trim(masterImages);
+    }
+
+    @NonNull
+    public String getTestImages() {
+        return trim(testImages);
+    }
+
+    @DataBoundSetter
+    public void setTestImages(@CheckForNull String testImages) {
+        this.testImages = trim(testImages);
+    }
+
+    public boolean isKeepOffline() {
+        return keepOffline;
+    }
+
+    @DataBoundSetter
+    public void setKeepOffline(boolean keepOffline) {
+        this.keepOffline = keepOffline;
+    }
+
+    @NonNull
+    public String getKeepOfflineNodes() {
+        return trim(keepOfflineNodes);
+    }
+
+    @DataBoundSetter
+    public void setKeepOfflineNodes(@CheckForNull String keepOfflineNodes) {
+        this.keepOfflineNodes = trim(keepOfflineNodes);
+    }
+
+    @Override
+    public Descriptor<NamedPool> getDescriptor() {
+        return Jenkins.get().getDescriptorOrDie(getClass());
+    }
+
+    static boolean isValidName(@CheckForNull String name) {
+        final String trimmed = trim(name);
+        return !trimmed.isEmpty()
+                && !NodePool.DEFAULT_NAME.equals(trimmed)
+                && trimmed.chars().noneMatch(Character::isWhitespace);
+    }
+
+    @NonNull
+    private static String trim(@CheckForNull String str) {
+        return Objects.requireNonNullElse(str, "").trim();
+    }
+
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<NamedPool> {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.NamedPool_displayName();
+        }
+
+        @RequirePOST
+        public FormValidation doCheckName(@QueryParameter String name) {
+            Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+            return isValidName(name) ? FormValidation.ok() : FormValidation.error(Messages.NamedPool_invalidName());
+        }
+
+        @RequirePOST
+        public FormValidation doCheckMasterImages(@QueryParameter String masterImages) {
+            Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+            return PoolConfiguration.DescriptorImpl.validateImages(masterImages);
+        }
+
+        @RequirePOST
+        public FormValidation doCheckTestImages(@QueryParameter String testImages) {
+            Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+            return PoolConfiguration.DescriptorImpl.validateImages(testImages);
+        }
+
+        @RequirePOST
+        public FormValidation doCheckKeepOfflineNodes(@QueryParameter String keepOfflineNodes) {
+            Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+            return PoolConfiguration.DescriptorImpl.validateExpressions(keepOfflineNodes, Label::parseExpression);
+        }
+    }
+}
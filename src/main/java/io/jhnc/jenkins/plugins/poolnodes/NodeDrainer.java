@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.PeriodicWork;
+import jenkins.util.SystemProperties;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class NodeDrainer {
+    static final NodeDrainer INSTANCE = new NodeDrainer(NodeDrainListener::fireOnDrained);
+    private static final Logger LOGGER = Logger.getLogger(NodeDrainer.class.getName());
+    private final ConcurrentMap<String, Drain> draining = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final Consumer<Computer> drainedListener;
+
+    NodeDrainer(@NonNull Consumer<Computer> drainedListener) {
+        this.drainedListener = drainedListener;
+    }
+
+    @NonNull
+    public static NodeDrainer get() {
+        return INSTANCE;
+    }
+
+    public boolean isDraining(@CheckForNull String nodeName) {
+        return nodeName != null && !draining.isEmpty() && draining.containsKey(nodeName);
+    }
+
+    public boolean isAnyDraining() {
+        return !draining.isEmpty();
+    }
+
+    public long getChanges() {
+        return changes.get();
+    }
+
+    @NonNull
+    public Set<String> getDrainingNodes() {
+        return Collections.unmodifiableSet(draining.keySet());
+    }
+
+    void drain(@NonNull Computer computer, @NonNull Consumer<Computer> onDrained) {
+        draining.put(computer.getName(), new Drain(computer, onDrained));
+        changes.incrementAndGet();
+        LOGGER.log(Level.FINE, "Draining {0}", computer.getName());
+    }
+
+    boolean cancel(@CheckForNull String nodeName) {
+        if (isDraining(nodeName) && draining.remove(nodeName) != null) {
+            changes.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    void check() {
+        for (final Map.Entry<String, Drain> entry : draining.entrySet()) {
+            final Drain drain = entry.getValue();
+
+            if (drain.computer.isIdle() && draining.remove(entry.getKey(), drain)) {
+                changes.incrementAndGet();
+                LOGGER.log(Level.FINE, "Drained {0}", entry.getKey());
+                drain.onDrained.accept(drain.computer);
+                drainedListener.accept(drain.computer);
+            }
+        }
+    }
+
+
+    private static final class Drain {
+        private final Computer computer;
+        private final Consumer<Computer> onDrained;
+
+        Drain(@NonNull Computer computer, @NonNull Consumer<Computer> onDrained) {
+            this.computer = computer;
+            this.onDrained = onDrained;
+        }
+    }
+
+
+    @Extension
+    public static class Monitor extends PeriodicWork {
+        private static final long RECURRENCE_PERIOD = SystemProperties.getLong(
+                Monitor.class.getName() + ".recurrencePeriod", TimeUnit.SECONDS.toMillis(10));
+
+        @Override
+        public long getRecurrencePeriod() {
+            return RECURRENCE_PERIOD;
+        }
+
+        @Override
+        protected void doRun() {
+            INSTANCE.check();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Label;
+import hudson.model.LabelFinder;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import jenkins.model.NodeListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+public final class NodeLabelIndex {
+    static final NodeLabelIndex INSTANCE = new NodeLabelIndex(Label::parse, NodeLabelIndex::hasForeignLabelFinders);
+    private final Function<String, Set<LabelAtom>> labelParser;
+    private final BooleanSupplier foreignLabels;
+    private final Map<String, IndexedNode> nodes = new ConcurrentHashMap<>();
+    private final Map<LabelAtom, Set<String>> nodesByLabel = new HashMap<>();
+    private long labelChanges;
+    private Collection<LabelAtom> unindexedOf;
+    private Set<LabelAtom> unindexed;
+    private long unindexedAt = -1;
+    private boolean unindexedForeign;
+
+    NodeLabelIndex(@NonNull Function<String, Set<LabelAtom>> labelParser) {
+        this(labelParser, () -> false);
+    }
+
+    NodeLabelIndex(@NonNull Function<String, Set<LabelAtom>> labelParser, @NonNull BooleanSupplier foreignLabels) {
+        this.labelParser = labelParser;
+        this.foreignLabels = foreignLabels;
+    }
+
+    synchronized void update(@CheckForNull Node node) {
+        if (node != null) {
+            getOrUpdate(node, null);
+        }
+    }
+
+    synchronized void update(@CheckForNull Node node, @NonNull Set<LabelAtom> foundLabels) {
+        if (node != null) {
+            getOrUpdate(node, foundLabels);
+        }
+    }
+
+    synchronized void remove(@NonNull String nodeName) {
+        final IndexedNode removed = nodes.remove(nodeName);
+
+        if (removed != null) {
+            unlink(nodeName, removed.labels);
+        }
+    }
+
+    boolean hasAnyLabel(@CheckForNull Node node, @NonNull Set<LabelAtom> labels) {
+        if (node == null || labels.isEmpty()) {
+            return false;
+        }
+
+        final Set<LabelAtom> indexed = getIndexedLabels(node);
+        for (final LabelAtom label : indexed == null ? reindex(node) : indexed) {
+            if (labels.contains(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @CheckForNull
+    Set<LabelAtom> getIndexedLabels(@CheckForNull Node node) {
+        final IndexedNode current = node == null ? null : nodes.get(node.getNodeName());
+        if (current == null || !Objects.equals(current.labelString, node.getLabelString())) {
+            return null;
+        }
+        return Collections.unmodifiableSet(current.labels);
+    }
+
+    @NonNull
+    synchronized Set<String> nodesWithAny(@NonNull Collection<LabelAtom> labels) {
+        final Set<String> result = new HashSet<>();
+        for (final LabelAtom label : labels) {
+            result.addAll(nodesByLabel.getOrDefault(label, Collections.emptySet()));
+        }
+        return result;
+    }
+
+    @NonNull
+    synchronized Set<LabelAtom> unindexed(@NonNull Collection<LabelAtom> labels) {
+        final boolean foreign = foreignLabels.getAsBoolean();
+        if (labels == unindexedOf && labelChanges == unindexedAt && foreign == unindexedForeign) {
+            return unindexed;
+        }
+
+        final Set<LabelAtom> result = new HashSet<>();
+        for (final LabelAtom label : labels) {
+            if (foreign || !nodesByLabel.containsKey(label)) {
+                result.add(label);
+            }
+        }
+        this.unindexedOf = labels;
+        this.unindexed = Collections.unmodifiableSet(result);
+        this.unindexedAt = labelChanges;
+        this.unindexedForeign = foreign;
+        return unindexed;
+    }
+
+    @NonNull
+    Set<LabelAtom> parse(@CheckForNull String labelString) {
+        return labelParser.apply(labelString == null ? "" : labelString);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    @NonNull
+    private synchronized Set<LabelAtom> reindex(@NonNull Node node) {
+        return getOrUpdate(node, null).labels;
+    }
+
+    @NonNull
+    private IndexedNode getOrUpdate(@NonNull Node node, @CheckForNull Set<LabelAtom> foundLabels) {
+        final String nodeName = node.getNodeName();
+        final String labelString = node.getLabelString();
+        final IndexedNode current = nodes.get(nodeName);
+
+        if (current != null && Objects.equals(current.labelString, labelString)
+                && (foundLabels == null || current.hasFound(foundLabels))) {
+            return current;
+        }
+
+        Set<LabelAtom> found = Objects.requireNonNullElse(foundLabels, Collections.emptySet());
+        if (current != null) {
+            unlink(nodeName, current.labels);
+            if (foundLabels == null) {
+                found = current.foundLabels;
+            }
+        }
+
+        final Set<LabelAtom> labels = new HashSet<>(labelParser.apply(labelString == null ? "" : labelString));
+        labels.add(new LabelAtom(nodeName));
+        labels.addAll(found);
+
+        final IndexedNode updated = new IndexedNode(labelString, found, labels);
+        nodes.put(nodeName, updated);
+        for (final LabelAtom label : labels) {
+            nodesByLabel.computeIfAbsent(label, k -> {
+                ++labelChanges;
+                return new HashSet<>();
+            }).add(nodeName);
+        }
+        return updated;
+    }
+
+    private void unlink(@NonNull String nodeName, @NonNull Set<LabelAtom> labels) {
+        for (final LabelAtom label : labels) {
+            final Set<String> names = nodesByLabel.get(label);
+
+            if (names != null) {
+                names.remove(nodeName);
+                if (names.isEmpty()) {
+                    nodesByLabel.remove(label);
+                    ++labelChanges;
+                }
+            }
+        }
+    }
+
+
+    private static boolean hasForeignLabelFinders() {
+        for (final LabelFinder finder : LabelFinder.all()) {
+            if (!(finder instanceof PoolLabelFinder)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static final class IndexedNode {
+        private final String labelString;
+        private final Set<LabelAtom> foundLabels;
+        private final Set<LabelAtom> labels;
+
+        IndexedNode(@CheckForNull String labelString, @NonNull Set<LabelAtom> foundLabels,
+                    @NonNull Set<LabelAtom> labels) {
+            this.labelString = labelString;
+            this.foundLabels = foundLabels;
+            this.labels = labels;
+        }
+
+        boolean hasFound(@NonNull Set<LabelAtom> other) {
+            return foundLabels == other || foundLabels.equals(other);
+        }
+    }
+
+
+    @Extension
+    public static class Updater extends NodeListener {
+        @Override
+        protected void onCreated(@NonNull Node node) {
+            INSTANCE.update(node);
+        }
+
+        @Override
+        protected void onUpdated(@NonNull Node oldOne, @NonNull Node newOne) {
+            if (!oldOne.getNodeName().equals(newOne.getNodeName())) {
+                INSTANCE.remove(oldOne.getNodeName());
+            }
+            INSTANCE.update(newOne);
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            INSTANCE.remove(node.getNodeName());
+        }
+    }
+}
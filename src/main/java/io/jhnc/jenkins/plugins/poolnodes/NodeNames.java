@@ -26,66 +26,123 @@ package io.jhnc.jenkins.plugins.poolnodes;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
 import hudson.model.Label;
 import hudson.model.Node;
 import hudson.model.labels.LabelAtom;
-import jenkins.model.Jenkins;
 
-import java.util.Collection;
-import java.util.Locale;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 
 public class NodeNames {
-    private static final Locale COMPARE_LOCALE = Locale.ENGLISH;
-    private static final String POOL_NODE_LABEL_PREFIX = "vdi-pool";
+    private static final PrefixMatcher DEFAULT_POOL_LABEL_PREFIX =
+            PrefixMatcher.compile(List.of(NodePool.DEFAULT_LABEL_PREFIX));
     private final Function<String, Set<LabelAtom>> labelParser;
+    private final ImageTypeCache imageTypes;
 
     public NodeNames() {
-        this(Label::parse);
+        this(Label::parse, ImageTypeCache.INSTANCE);
     }
 
     protected NodeNames(@NonNull Function<String, Set<LabelAtom>> labelParser) {
+        this(labelParser, new ImageTypeCache(Integer.MAX_VALUE));
+    }
+
+    NodeNames(@NonNull Function<String, Set<LabelAtom>> labelParser, @NonNull ImageTypeCache imageTypes) {
         this.labelParser = labelParser;
+        this.imageTypes = imageTypes;
     }
 
     public boolean isMasterNode(@CheckForNull Node node) {
-        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
-        return descriptor != null && isIn(descriptor.getMasterImageNames(), node);
+        return isMasterNode(node, getSnapshot());
     }
 
     public boolean isTestNode(@CheckForNull Node node) {
-        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
-        return descriptor != null && isIn(descriptor.getTestImageNames(), node);
+        return isTestNode(node, getSnapshot());
     }
 
     public boolean isProdNode(@CheckForNull Node node) {
-        if (node == null || isTestNode(node) || isMasterNode(node)) {
-            return false;
-        }
+        return isProdNode(node, getSnapshot());
+    }
 
-        return labelParser.apply(node.getLabelString()).stream().anyMatch(labelAtom -> {
-            final String label = labelAtom.getExpression();
-            return label != null && startsWithIgnoreCase(label, POOL_NODE_LABEL_PREFIX);
-        });
+    @CheckForNull
+    public PoolImageLabel getImageType(@CheckForNull Node node) {
+        return getImageType(node, getSnapshot());
     }
 
     @CheckForNull
     protected PoolConfiguration.DescriptorImpl getDescriptor() {
-        return (PoolConfiguration.DescriptorImpl) Jenkins.get().getDescriptor(PoolConfiguration.class);
+        final ExtensionList<PoolConfiguration.DescriptorImpl> descriptors =
+                ExtensionList.lookup(PoolConfiguration.DescriptorImpl.class);
+        return descriptors.isEmpty() ? null : descriptors.get(0);
+    }
+
+    @CheckForNull
+    protected PoolSnapshot getSnapshot() {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
+        return descriptor == null ? null : descriptor.getSnapshot();
+    }
+
+    boolean isMasterNode(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        return snapshot != null && getImageType(node, snapshot) == PoolImageLabel.MASTER;
+    }
+
+    boolean isTestNode(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        return snapshot != null && getImageType(node, snapshot) == PoolImageLabel.TEST;
+    }
+
+    boolean isProdNode(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        return getImageType(node, snapshot) == PoolImageLabel.PRODUCTION;
+    }
+
+    @CheckForNull
+    PoolImageLabel getImageType(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        final PoolAssignment assignment = getAssignment(node, snapshot);
+        return assignment == null ? null : assignment.getImageType();
     }
 
-    private boolean isIn(@NonNull Collection<String> labels, @CheckForNull Node node) {
+    @CheckForNull
+    String getProdPool(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        final PoolAssignment assignment = getAssignment(node, snapshot);
+        return assignment != null && assignment.isProd() ? assignment.getPoolName() : null;
+    }
+
+    @CheckForNull
+    PoolAssignment getAssignment(@CheckForNull Node node, @CheckForNull PoolSnapshot snapshot) {
         if (node == null) {
-            return false;
+            return null;
         }
 
         final String nodeName = node.getNodeName();
-        return !nodeName.isEmpty()
-                && labels.stream().anyMatch(name -> startsWithIgnoreCase(nodeName, name));
+        final String labelString = node.getLabelString();
+        final long generation = snapshot == null ? 0 : snapshot.getGeneration();
+        final ImageTypeCache.Entry cached = imageTypes.get(nodeName, labelString, generation);
+
+        if (cached != null) {
+            return cached.getAssignment();
+        }
+
+        final PoolAssignment assignment = classify(nodeName, labelString, snapshot);
+        imageTypes.put(nodeName, labelString, generation, assignment);
+        return assignment;
     }
 
-    private boolean startsWithIgnoreCase(@NonNull String str, @NonNull String prefix) {
-        return str.toLowerCase(COMPARE_LOCALE).startsWith(prefix.toLowerCase(COMPARE_LOCALE));
+    @CheckForNull
+    private PoolAssignment classify(@NonNull String nodeName, @CheckForNull String labelString,
+                                    @CheckForNull PoolSnapshot snapshot) {
+        if (snapshot == null) {
+            final boolean isProd = labelParser.apply(labelString).stream()
+                    .anyMatch(labelAtom -> DEFAULT_POOL_LABEL_PREFIX.matches(labelAtom.getExpression()));
+            return isProd ? new PoolAssignment(NodePool.DEFAULT_NAME, PoolImageLabel.PRODUCTION) : null;
+        }
+
+        final PoolAssignment image = nodeName.isEmpty() ? null : snapshot.findImage(nodeName);
+        if (image != null) {
+            return image;
+        }
+
+        final String prodPool = snapshot.findProdPool(labelParser.apply(labelString));
+        return prodPool == null ? null : new PoolAssignment(prodPool, PoolImageLabel.PRODUCTION);
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Label;
+import hudson.model.labels.LabelAtom;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class NodePool {
+    public static final String DEFAULT_NAME = "default";
+    public static final String DEFAULT_LABEL_PREFIX = "vdi-pool";
+    private final String name;
+    private final String labelPrefix;
+    private final List<String> masterImageNames;
+    private final List<String> testImageNames;
+    private final List<String> masterImagePatterns;
+    private final List<String> testImagePatterns;
+    private final Set<LabelAtom> poolLabelAtoms;
+    private final boolean keepOffline;
+    private final Set<LabelAtom> keepOfflineNodes;
+    private final KeepOfflineExpressions keepOfflineExpressions;
+
+    public NodePool(@NonNull String name, @NonNull String labelPrefix, @CheckForNull Collection<String> masterImages,
+                    @CheckForNull Collection<String> testImages, @CheckForNull Set<LabelAtom> poolLabelAtoms,
+                    boolean keepOffline, @CheckForNull Set<LabelAtom> keepOfflineNodes) {
+        this.name = name;
+        this.labelPrefix = labelPrefix;
+        this.masterImageNames = select(masterImages, false);
+        this.testImageNames = select(testImages, false);
+        this.masterImagePatterns = select(masterImages, true);
+        this.testImagePatterns = select(testImages, true);
+        this.poolLabelAtoms = copyOf(poolLabelAtoms);
+        this.keepOffline = keepOffline;
+        this.keepOfflineNodes = copyOf(keepOfflineNodes);
+        this.keepOfflineExpressions = KeepOfflineExpressions.empty();
+    }
+
+    private NodePool(@NonNull NodePool source, boolean keepOffline, @NonNull Set<LabelAtom> keepOfflineNodes,
+                     @NonNull KeepOfflineExpressions keepOfflineExpressions) {
+        this.name = source.name;
+        this.labelPrefix = source.labelPrefix;
+        this.masterImageNames = source.masterImageNames;
+        this.testImageNames = source.testImageNames;
+        this.masterImagePatterns = source.masterImagePatterns;
+        this.testImagePatterns = source.testImagePatterns;
+        this.poolLabelAtoms = source.poolLabelAtoms;
+        this.keepOffline = keepOffline;
+        this.keepOfflineNodes = keepOfflineNodes;
+        this.keepOfflineExpressions = keepOfflineExpressions;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public String getLabelPrefix() {
+        return labelPrefix;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getPoolLabelAtoms() {
+        return poolLabelAtoms;
+    }
+
+    public boolean isKeepOffline() {
+        return keepOffline;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getKeepOfflineNodes() {
+        return keepOfflineNodes;
+    }
+
+    @NonNull
+    public KeepOfflineExpressions getKeepOfflineExpressions() {
+        return keepOfflineExpressions;
+    }
+
+    @NonNull
+    List<String> getMasterImageNames() {
+        return masterImageNames;
+    }
+
+    @NonNull
+    List<String> getTestImageNames() {
+        return testImageNames;
+    }
+
+    @NonNull
+    List<String> getMasterImagePatterns() {
+        return masterImagePatterns;
+    }
+
+    @NonNull
+    List<String> getTestImagePatterns() {
+        return testImagePatterns;
+    }
+
+    @NonNull
+    NodePool withKeepOffline(boolean keepOffline) {
+        return keepOffline == this.keepOffline
+                ? this
+                : new NodePool(this, keepOffline, keepOfflineNodes, keepOfflineExpressions);
+    }
+
+    @NonNull
+    NodePool withKeepOfflineNodes(@CheckForNull Set<LabelAtom> keepOfflineNodes) {
+        return new NodePool(this, keepOffline, copyOf(keepOfflineNodes), keepOfflineExpressions);
+    }
+
+    @NonNull
+    NodePool withKeepOfflineExpressions(@CheckForNull Collection<Label> keepOfflineExpressions) {
+        return new NodePool(this, keepOffline, keepOfflineNodes,
+                KeepOfflineExpressions.compile(keepOfflineExpressions));
+    }
+
+    @NonNull
+    private static List<String> select(@CheckForNull Collection<String> images, boolean patterns) {
+        if (images == null || images.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return images.stream()
+                .filter(image -> image != null && ImagePatterns.isPattern(image) == patterns)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @NonNull
+    private static Set<LabelAtom> copyOf(@CheckForNull Set<LabelAtom> labelAtoms) {
+        if (labelAtoms instanceof OverlaySet && !labelAtoms.isEmpty()) {
+            return labelAtoms;
+        }
+        return labelAtoms == null || labelAtoms.isEmpty() ? Collections.emptySet() : Set.copyOf(labelAtoms);
+    }
+}
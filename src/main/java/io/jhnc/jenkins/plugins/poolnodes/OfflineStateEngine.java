@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+import hudson.slaves.OfflineCause;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public final class OfflineStateEngine {
+    private static final Decision[] DECISIONS = createDecisions();
+    private final NodeDrainer drainer;
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    public OfflineStateEngine() {
+        this(NodeDrainer.INSTANCE);
+    }
+
+    OfflineStateEngine(@NonNull NodeDrainer drainer) {
+        this.drainer = drainer;
+    }
+
+    @NonNull
+    static Decision decide(boolean poolNode, boolean keepPoolOffline, boolean keepNodeOffline) {
+        final Reason reason;
+
+        if (keepNodeOffline) {
+            reason = Reason.NODE;
+        } else if (poolNode && keepPoolOffline) {
+            reason = Reason.POOL;
+        } else {
+            reason = null;
+        }
+        return DECISIONS[indexOf(reason, poolNode)];
+    }
+
+    public long getAppliedTransitions() {
+        return applied.sum();
+    }
+
+    public long getSkippedTransitions() {
+        return skipped.sum();
+    }
+
+    public long getDeferredTransitions() {
+        return deferred.sum();
+    }
+
+    boolean apply(@NonNull Computer computer, @NonNull Decision decision) {
+        return apply(computer, decision, false);
+    }
+
+    boolean apply(@NonNull Computer computer, @NonNull Decision decision, boolean drain) {
+        final Reason reason = decision.getReason();
+        final OfflineCause current = computer.getOfflineCause();
+
+        if (reason != null && Reason.of(current) != reason && drain && !computer.isIdle()) {
+            drainer.drain(computer, drained -> apply(drained, decision, false));
+            deferred.increment();
+            return false;
+        }
+
+        drainer.cancel(computer.getName());
+        if (reason != null) {
+            return Reason.of(current) == reason ? skip() : transition(computer, reason.createCause());
+        }
+
+        final boolean clear = decision.isManaged()
+                ? current != null
+                : computer.isOffline() && Reason.of(current) != null;
+        return clear ? transition(computer, null) : skip();
+    }
+
+    private boolean transition(@NonNull Computer computer, @CheckForNull OfflineCause cause) {
+        computer.setTemporaryOfflineCause(cause);
+        applied.increment();
+        return true;
+    }
+
+    private boolean skip() {
+        skipped.increment();
+        return false;
+    }
+
+    @NonNull
+    private static Decision[] createDecisions() {
+        final Reason[] reasons = Reason.values();
+        final Decision[] decisions = new Decision[(reasons.length + 1) * 2];
+
+        for (final boolean managed : new boolean[]{false, true}) {
+            decisions[indexOf(null, managed)] = new Decision(null, managed);
+            for (final Reason reason : reasons) {
+                decisions[indexOf(reason, managed)] = new Decision(reason, managed);
+            }
+        }
+        return decisions;
+    }
+
+    private static int indexOf(@CheckForNull Reason reason, boolean managed) {
+        return (reason == null ? 0 : reason.ordinal() + 1) * 2 + (managed ? 1 : 0);
+    }
+
+
+    // Declared in order of precedence, the first applicable reason wins.
+    enum Reason {
+        NODE(PoolNodeListener.NodeOfflineCause.class, PoolNodeListener.NodeOfflineCause::new),
+        POOL(PoolNodeListener.PoolOfflineCause.class, PoolNodeListener.PoolOfflineCause::new);
+
+        private final Class<? extends OfflineCause> causeType;
+        private final Supplier<OfflineCause> factory;
+
+        Reason(@NonNull Class<? extends OfflineCause> causeType, @NonNull Supplier<OfflineCause> factory) {
+            this.causeType = causeType;
+            this.factory = factory;
+        }
+
+        @NonNull
+        OfflineCause createCause() {
+            return factory.get();
+        }
+
+        @CheckForNull
+        static Reason of(@CheckForNull OfflineCause cause) {
+            for (final Reason reason : values()) {
+                if (reason.causeType.isInstance(cause)) {
+                    return reason;
+                }
+            }
+            return null;
+        }
+    }
+
+
+    static final class Decision {
+        private final Reason reason;
+        private final boolean managed;
+
+        Decision(@CheckForNull Reason reason, boolean managed) {
+            this.reason = reason;
+            this.managed = managed;
+        }
+
+        @CheckForNull
+        Reason getReason() {
+            return reason;
+        }
+
+        boolean isManaged() {
+            return managed;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+final class OverlaySet<E> extends AbstractSet<E> {
+    private static final int MIN_DELTA = 32;
+    private static final OverlaySet<?> EMPTY = new OverlaySet<>(Set.of(), new Delta<>(), 0, 0, 0, Set.of());
+    private final Set<E> base;
+    private final Delta<E> delta;
+    private final int version;
+    private final int changes;
+    private final int size;
+    private final Set<E> extra;
+
+    private OverlaySet(@NonNull Set<E> base, @NonNull Delta<E> delta, int version, int changes, int size,
+                       @NonNull Set<E> extra) {
+        this.base = base;
+        this.delta = delta;
+        this.version = version;
+        this.changes = changes;
+        this.size = size;
+        this.extra = extra;
+    }
+
+    @NonNull
+    @SuppressWarnings("unchecked")
+    static <E> OverlaySet<E> empty() {
+        return (OverlaySet<E>) EMPTY;
+    }
+
+    @NonNull
+    static <E> OverlaySet<E> of(@CheckForNull Collection<E> elements) {
+        if (elements instanceof OverlaySet) {
+            return (OverlaySet<E>) elements;
+        }
+        return elements == null || elements.isEmpty() ? empty() : detached(Set.copyOf(elements));
+    }
+
+    @NonNull
+    OverlaySet<E> plus(@NonNull Collection<E> elements) {
+        return update(elements, true);
+    }
+
+    @NonNull
+    OverlaySet<E> minus(@NonNull Collection<E> elements) {
+        return update(elements, false);
+    }
+
+    @NonNull
+    OverlaySet<E> union(@NonNull Collection<E> elements) {
+        final Set<E> combined = new HashSet<>(extra);
+        int nextSize = size;
+        for (final E element : elements) {
+            if (!contains(element) && combined.add(element)) {
+                ++nextSize;
+            }
+        }
+        return nextSize == size ? this : new OverlaySet<>(base, delta, version, changes, nextSize,
+                Set.copyOf(combined));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && (extra.contains(o) || isPresent(o, version));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<E> iterator() {
+        if (changes == 0 && extra.isEmpty()) {
+            return Collections.unmodifiableSet(base).iterator();
+        }
+
+        final Stream<E> overlay = changes == 0 ? base.stream() : Stream.concat(
+                base.stream().filter(element -> isPresent(element, version)),
+                delta.changes.keySet().stream().filter(element -> !base.contains(element)
+                        && isPresent(element, version)));
+        return Stream.concat(overlay, extra.stream()).iterator();
+    }
+
+    @NonNull
+    private OverlaySet<E> update(@NonNull Collection<E> elements, boolean add) {
+        if (this == EMPTY || !extra.isEmpty()) {
+            return add || !isEmpty() ? detached(Set.copyOf(this)).update(elements, add) : this;
+        }
+
+        synchronized (delta) {
+            if (delta.version != version) {
+                return detached(Set.copyOf(this)).update(elements, add);
+            }
+
+            final int next = version + 1;
+            int nextChanges = changes;
+            int nextSize = size;
+            for (final E element : elements) {
+                if (isPresent(element, next) != add) {
+                    delta.changes.compute(element, (key, previous) -> new Change(next, add, previous));
+                    nextSize += add ? 1 : -1;
+                    ++nextChanges;
+                }
+            }
+            if (nextChanges == changes) {
+                return this;
+            }
+
+            delta.version = next;
+            final OverlaySet<E> updated = new OverlaySet<>(base, delta, next, nextChanges, nextSize, Set.of());
+            if (nextChanges <= Math.max(MIN_DELTA, (int) Math.sqrt(base.size()))) {
+                return updated;
+            }
+            return nextSize == 0 ? empty() : detached(Set.copyOf(updated));
+        }
+    }
+
+    private boolean isPresent(@NonNull Object element, int at) {
+        Change change = changes == 0 && at == version ? null : delta.changes.get(element);
+        while (change != null && change.version > at) {
+            change = change.previous;
+        }
+        return change == null ? base.contains(element) : change.present;
+    }
+
+    @NonNull
+    private static <E> OverlaySet<E> detached(@NonNull Set<E> base) {
+        return new OverlaySet<>(base, new Delta<>(), 0, 0, base.size(), Set.of());
+    }
+
+
+    private static final class Delta<E> {
+        private final ConcurrentMap<E, Change> changes = new ConcurrentHashMap<>();
+        private int version;
+    }
+
+
+    private static final class Change {
+        private final int version;
+        private final boolean present;
+        private final Change previous;
+
+        Change(int version, boolean present, @CheckForNull Change previous) {
+            this.version = version;
+            this.present = present;
+            this.previous = previous;
+        }
+    }
+}
@@ -27,7 +27,9 @@ package io.jhnc.jenkins.plugins.poolnodes;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import hudson.BulkChange;
 import hudson.Extension;
+import hudson.ExtensionList;
 import hudson.model.Descriptor;
 import hudson.model.Label;
 import hudson.model.labels.LabelAtom;
@@ -35,29 +37,62 @@ import hudson.security.Permission;
 import hudson.util.FormValidation;
 import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.interceptor.RequirePOST;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@SuppressWarnings("PMD.TooManyMethods")
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.AvoidUsingVolatile"})
 public class PoolConfiguration extends GlobalConfiguration {
     @Extension
     public static class DescriptorImpl extends Descriptor<GlobalConfiguration> {
-        private Set<LabelAtom> poolLabelAtoms;
+        private static final Logger LOGGER = Logger.getLogger(PoolConfiguration.class.getName());
+        private static final int JOURNAL_COMPACTION_THRESHOLD = SystemProperties.getInteger(
+                PoolConfiguration.class.getName() + ".journalCompactionThreshold", 1_000);
+        private static final String POOL_LABELS_FILE = "poolLabels.txt";
+        private static final String KEEP_OFFLINE_NODES_FILE = "keepOfflineNodes.txt";
+        private static final String DEMAND_HISTORY_FILE = "demandHistory.txt";
         private Set<String> masterImages;
         private Set<String> testImages;
         private boolean keepOffline;
+        private volatile Set<String> keepOfflineExpressions;
+        private boolean drainBeforeOffline;
+        private int releaseWaveSize;
+        private int releaseWaveInterval;
+        private int releaseMaxQueueLength;
+        private boolean elasticRelease;
+        private int elasticTargetWait;
+        private int elasticCooldown;
+        private int elasticPrewarm;
+        private String maintenanceWindows;
+        private List<NamedPool> pools;
+        // Written by earlier versions, migrated to the label files on load.
+        private Set<LabelAtom> poolLabelAtoms;
         private Set<LabelAtom> keepOfflineNodes;
-
+        private transient Set<LabelAtom> poolLabels;
+        private transient volatile OverlaySet<LabelAtom> keepOfflineNodeLabels;
+        private transient volatile PoolSnapshot snapshot;
+        private transient KeepOfflineJournal journal;
 
         public DescriptorImpl() {
             load();
@@ -69,8 +104,51 @@ public class PoolConfiguration extends GlobalConfiguration {
             return Messages.PoolConfiguration_displayName();
         }
 
+        @Override
+        public synchronized void load() {
+            super.load();
+            final boolean migrate = loadLabels();
+            replayJournal();
+            if (migrate) {
+                persist();
+            }
+            publishSnapshot();
+        }
+
+        @NonNull
+        public PoolSnapshot getSnapshot() {
+            final PoolSnapshot current = snapshot;
+            return current == null ? publishSnapshot() : current;
+        }
+
         @Override
         public boolean configure(StaplerRequest2 req, JSONObject json) throws FormException {
+            checkImages(json, "masterImages", "masterImages");
+            checkImages(json, "testImages", "testImages");
+            final Object pools = json.opt("pools");
+            final List<?> entries = pools instanceof JSONArray ? (JSONArray) pools : Collections.singletonList(pools);
+            for (final Object pool : entries) {
+                if (pool instanceof JSONObject) {
+                    checkImages((JSONObject) pool, "masterImages", "pools");
+                    checkImages((JSONObject) pool, "testImages", "pools");
+                }
+            }
+            try {
+                update(descriptor -> descriptor.apply(req, json));
+            } catch (IOException e) {
+                throw new FormException(e, "");
+            }
+            return super.configure(req, json);
+        }
+
+        public synchronized void update(@NonNull Consumer<DescriptorImpl> changes) throws IOException {
+            try (BulkChange bulkChange = new BulkChange(this)) {
+                changes.accept(this);
+                bulkChange.commit();
+            }
+        }
+
+        private void apply(@NonNull StaplerRequest2 req, @NonNull JSONObject json) {
             if (json.has("poolLabels")) {
                 setPoolLabels(json.getString("poolLabels"));
             }
@@ -86,7 +164,89 @@ public class PoolConfiguration extends GlobalConfiguration {
             if (json.has("keepOfflineNodes")) {
                 setKeepOfflineNodes(json.getString("keepOfflineNodes"));
             }
-            return super.configure(req, json);
+            if (json.has("pools") || json.optBoolean("poolsSubmitted")) {
+                // The form omits "pools" once the last pool is deleted
+                setPools(req.bindJSONToList(NamedPool.class, json.opt("pools")));
+            }
+            if (json.has("drainBeforeOffline")) {
+                setDrainBeforeOffline(json.getBoolean("drainBeforeOffline"));
+            }
+            if (json.has("maintenanceWindows")) {
+                setMaintenanceWindows(json.getString("maintenanceWindows"));
+            }
+            if (json.has("releaseWaveSize")) {
+                setReleaseWaveSize(json.optInt("releaseWaveSize"));
+            }
+            if (json.has("releaseWaveInterval")) {
+                setReleaseWaveInterval(json.optInt("releaseWaveInterval"));
+            }
+            if (json.has("releaseMaxQueueLength")) {
+                setReleaseMaxQueueLength(json.optInt("releaseMaxQueueLength"));
+            }
+            if (json.has("elasticRelease")) {
+                setElasticRelease(json.getBoolean("elasticRelease"));
+            }
+            if (json.has("elasticTargetWait")) {
+                setElasticTargetWait(json.optInt("elasticTargetWait"));
+            }
+            if (json.has("elasticCooldown")) {
+                setElasticCooldown(json.optInt("elasticCooldown"));
+            }
+            if (json.has("elasticPrewarm")) {
+                setElasticPrewarm(json.optInt("elasticPrewarm"));
+            }
+        }
+
+        @Override
+        public synchronized void save() {
+            if (BulkChange.contains(this)) {
+                return;
+            }
+            publishSnapshot();
+            persist();
+            notifyAgents();
+        }
+
+        protected void notifyAgents() {
+            for (final PoolNodeListener listener : ExtensionList.lookup(PoolNodeListener.class)) {
+                listener.onConfigurationChange();
+            }
+        }
+
+        protected void persist() {
+            try {
+                getLabelFile(POOL_LABELS_FILE).write(poolLabels);
+                getLabelFile(KEEP_OFFLINE_NODES_FILE).write(keepOfflineNodeLabels);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to write label files, keeping labels in the configuration", e);
+                persistWithLabels();
+                return;
+            }
+
+            super.save();
+            try {
+                getJournal().clear();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to clear keepOffline journal", e);
+            }
+        }
+
+        @NonNull
+        protected synchronized KeepOfflineJournal getJournal() {
+            if (journal == null) {
+                journal = new KeepOfflineJournal(getSiblingFile("keepOffline.log"));
+            }
+            return journal;
+        }
+
+        @NonNull
+        protected LabelAtomFile getLabelFile(@NonNull String name) {
+            return new LabelAtomFile(getSiblingFile(name));
+        }
+
+        @NonNull
+        protected DemandHistoryFile getDemandHistoryFile() {
+            return new DemandHistoryFile(getSiblingFile(DEMAND_HISTORY_FILE));
         }
 
         @RequirePOST
@@ -98,33 +258,49 @@ public class PoolConfiguration extends GlobalConfiguration {
         @RequirePOST
         public FormValidation doCheckMasterImages(@QueryParameter String masterImages) {
             checkPermission(Jenkins.ADMINISTER);
-            return validateParameter(masterImages, "Master Images");
+            final FormValidation validation = validateParameter(masterImages, "Master Images");
+            return validation.kind == FormValidation.Kind.OK ? validateImages(masterImages) : validation;
         }
 
         @RequirePOST
         public FormValidation doCheckTestImages(@QueryParameter String testImages) {
             checkPermission(Jenkins.ADMINISTER);
-            return validateParameter(testImages, "Test Images");
+            final FormValidation validation = validateParameter(testImages, "Test Images");
+            return validation.kind == FormValidation.Kind.OK ? validateImages(testImages) : validation;
         }
 
         @RequirePOST
         public FormValidation doCheckKeepOfflineNodes(@QueryParameter String keepOfflineNodes) {
             checkPermission(Jenkins.ADMINISTER);
-            return validateParameter(keepOfflineNodes, "Keep offline Nodes");
+            final FormValidation validation = validateParameter(keepOfflineNodes, "Keep offline Nodes");
+            return validation.kind == FormValidation.Kind.OK
+                    ? validateExpressions(keepOfflineNodes, this::parseExpression)
+                    : validation;
+        }
+
+        @RequirePOST
+        public FormValidation doCheckMaintenanceWindows(@QueryParameter String maintenanceWindows) {
+            checkPermission(Jenkins.ADMINISTER);
+            try {
+                MaintenanceWindow.parseAll(maintenanceWindows);
+                return FormValidation.ok();
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
         }
 
         @NonNull
         public String getPoolLabels() {
-            return labelAtomsToString(poolLabelAtoms, " ");
+            return labelAtomsToString(poolLabels, " ");
         }
 
         @NonNull
         public Set<LabelAtom> getPoolLabelAtoms() {
-            return Objects.requireNonNullElse(poolLabelAtoms, Collections.emptySet());
+            return Objects.requireNonNullElse(poolLabels, Collections.emptySet());
         }
 
         public void setPoolLabels(@CheckForNull String labelString) {
-            this.poolLabelAtoms = parseLabels(labelString);
+            this.poolLabels = parseLabels(labelString);
             save();
         }
 
@@ -167,17 +343,127 @@ public class PoolConfiguration extends GlobalConfiguration {
             save();
         }
 
-        public String getKeepOfflineNodes() {
-            return labelAtomsToString(keepOfflineNodes, "\n");
+        public synchronized String getKeepOfflineNodes() {
+            final String atoms = labelAtomsToString(keepOfflineNodeLabels, "\n");
+            return Stream.concat(Stream.of(atoms), getKeepOfflineExpressions().stream())
+                    .filter(entry -> !entry.isEmpty())
+                    .collect(Collectors.joining("\n"));
         }
 
         @NonNull
         public Set<LabelAtom> getKeepOfflineNodesLabelAtoms() {
-            return Objects.requireNonNullElse(keepOfflineNodes, Collections.emptySet());
+            return OverlaySet.of(keepOfflineNodeLabels);
+        }
+
+        @NonNull
+        public Collection<String> getKeepOfflineExpressions() {
+            final Set<String> expressions = keepOfflineExpressions;
+            return expressions == null ? Collections.emptySet() : Collections.unmodifiableSet(expressions);
+        }
+
+        public synchronized void setKeepOfflineNodes(@CheckForNull String keepOfflineNodes) {
+            this.keepOfflineNodeLabels = OverlaySet.of(parseLabels(atomEntries(keepOfflineNodes)));
+            this.keepOfflineExpressions = expressionEntries(keepOfflineNodes);
+            save();
+        }
+
+        public synchronized boolean addKeepOfflineNode(@NonNull String entry) {
+            return updateKeepOfflineNode(checkKeepOfflineEntry(entry), true);
+        }
+
+        public synchronized boolean removeKeepOfflineNode(@NonNull String entry) {
+            return updateKeepOfflineNode(checkKeepOfflineEntry(entry), false);
+        }
+
+        @NonNull
+        public List<NamedPool> getPools() {
+            return Objects.requireNonNullElse(pools, Collections.emptyList());
+        }
+
+        public void setPools(@CheckForNull List<NamedPool> pools) {
+            this.pools = pools == null || pools.isEmpty() ? null : new ArrayList<>(pools);
+            save();
         }
 
-        public void setKeepOfflineNodes(@CheckForNull String keepOfflineNodes) {
-            this.keepOfflineNodes = parseLabels(keepOfflineNodes);
+        @NonNull
+        public String getMaintenanceWindows() {
+            return Objects.requireNonNullElse(maintenanceWindows, "");
+        }
+
+        public void setMaintenanceWindows(@CheckForNull String maintenanceWindows) {
+            this.maintenanceWindows = Objects.requireNonNullElse(maintenanceWindows, "").trim();
+            save();
+        }
+
+        public boolean isDrainBeforeOffline() {
+            return drainBeforeOffline;
+        }
+
+        public void setDrainBeforeOffline(boolean drainBeforeOffline) {
+            this.drainBeforeOffline = drainBeforeOffline;
+            save();
+        }
+
+        public int getReleaseWaveSize() {
+            return releaseWaveSize;
+        }
+
+        public void setReleaseWaveSize(int releaseWaveSize) {
+            this.releaseWaveSize = Math.max(0, releaseWaveSize);
+            save();
+        }
+
+        public int getReleaseWaveInterval() {
+            return releaseWaveInterval;
+        }
+
+        public void setReleaseWaveInterval(int releaseWaveInterval) {
+            this.releaseWaveInterval = Math.max(0, releaseWaveInterval);
+            save();
+        }
+
+        public int getReleaseMaxQueueLength() {
+            return releaseMaxQueueLength;
+        }
+
+        public void setReleaseMaxQueueLength(int releaseMaxQueueLength) {
+            this.releaseMaxQueueLength = Math.max(0, releaseMaxQueueLength);
+            save();
+        }
+
+        public boolean isElasticRelease() {
+            return elasticRelease;
+        }
+
+        public void setElasticRelease(boolean elasticRelease) {
+            this.elasticRelease = elasticRelease;
+            save();
+        }
+
+        public int getElasticTargetWait() {
+            return elasticTargetWait;
+        }
+
+        public void setElasticTargetWait(int elasticTargetWait) {
+            this.elasticTargetWait = Math.max(0, elasticTargetWait);
+            save();
+        }
+
+        public int getElasticCooldown() {
+            return elasticCooldown;
+        }
+
+        public void setElasticCooldown(int elasticCooldown) {
+            this.elasticCooldown = Math.max(0, elasticCooldown);
+            save();
+        }
+
+        public int getElasticPrewarm() {
+            return elasticPrewarm;
+        }
+
+        public void setElasticPrewarm(int elasticPrewarm) {
+            this.elasticPrewarm = Math.max(0, elasticPrewarm);
             save();
         }
 
@@ -185,6 +471,172 @@ public class PoolConfiguration extends GlobalConfiguration {
             Jenkins.get().checkPermission(permission);
         }
 
+        @NonNull
+        private synchronized PoolSnapshot publishSnapshot() {
+            final PoolSnapshot current = PoolSnapshot.builder()
+                    .masterImages(masterImages)
+                    .testImages(testImages)
+                    .poolLabelAtoms(poolLabels)
+                    .keepOffline(keepOffline)
+                    .keepOfflineNodes(keepOfflineNodeLabels)
+                    .drainBeforeOffline(drainBeforeOffline)
+                    .releasePolicy(new ReleasePolicy(releaseWaveSize, releaseWaveInterval, releaseMaxQueueLength,
+                            elasticRelease, elasticTargetWait, elasticCooldown, elasticPrewarm))
+                    .maintenanceWindows(parseMaintenanceWindows())
+                    .pools(createNamedPools())
+                    .keepOfflineExpressions(compileKeepOfflineExpressions())
+                    .build();
+            this.snapshot = current;
+            return current;
+        }
+
+        private boolean updateKeepOfflineNode(@NonNull String entry, boolean add) {
+            if (add && KeepOfflineExpressions.isExpression(entry)) {
+                parseExpression(entry);
+            }
+            if (!applyKeepOfflineNode(entry, add)) {
+                return false;
+            }
+
+            final PoolSnapshot current = getSnapshot();
+            this.snapshot = KeepOfflineExpressions.isExpression(entry)
+                    ? current.withKeepOfflineExpressions(compileKeepOfflineExpressions())
+                    : current.withDefaultKeepOfflineNodes(keepOfflineNodeLabels);
+            appendJournal(entry, add);
+            return true;
+        }
+
+        private boolean applyKeepOfflineNode(@NonNull String entry, boolean add) {
+            if (entry.isEmpty()) {
+                return false;
+            }
+
+            if (KeepOfflineExpressions.isExpression(entry)) {
+                final Set<String> expressions = new LinkedHashSet<>(getKeepOfflineExpressions());
+                if (add ? !expressions.add(entry) : !expressions.remove(entry)) {
+                    return false;
+                }
+                this.keepOfflineExpressions = expressions.isEmpty() ? null : expressions;
+                return true;
+            }
+
+            final Set<LabelAtom> labels = parseLabels(entry);
+            final OverlaySet<LabelAtom> current = OverlaySet.of(keepOfflineNodeLabels);
+            final OverlaySet<LabelAtom> updated = add ? current.plus(labels) : current.minus(labels);
+            this.keepOfflineNodeLabels = updated;
+            return updated != current;
+        }
+
+        private void appendJournal(@NonNull String entry, boolean add) {
+            if (BulkChange.contains(this)) {
+                return;
+            }
+
+            try {
+                final int size = getJournal().append(entry, add);
+                if (size > Math.max(JOURNAL_COMPACTION_THRESHOLD, getKeepOfflineNodesLabelAtoms().size())) {
+                    persist();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to append to keepOffline journal, saving configuration", e);
+                persist();
+            }
+        }
+
+        private boolean loadLabels() {
+            if (poolLabelAtoms != null || keepOfflineNodes != null) {
+                this.poolLabels = poolLabelAtoms;
+                this.keepOfflineNodeLabels = OverlaySet.of(keepOfflineNodes);
+                this.poolLabelAtoms = null;
+                this.keepOfflineNodes = null;
+                return true;
+            }
+
+            try {
+                this.poolLabels = getLabelFile(POOL_LABELS_FILE).read(LabelAtom::get);
+                this.keepOfflineNodeLabels = OverlaySet.of(
+                        getLabelFile(KEEP_OFFLINE_NODES_FILE).read(LabelAtom::get));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read label files", e);
+            }
+            return false;
+        }
+
+        private void persistWithLabels() {
+            this.poolLabelAtoms = poolLabels;
+            this.keepOfflineNodes = keepOfflineNodeLabels == null ? null : new HashSet<>(keepOfflineNodeLabels);
+            try {
+                super.save();
+            } finally {
+                this.poolLabelAtoms = null;
+                this.keepOfflineNodes = null;
+            }
+        }
+
+        @NonNull
+        private Path getSiblingFile(@NonNull String name) {
+            return getConfigFile().getFile().toPath().resolveSibling(getId() + "." + name);
+        }
+
+        private void replayJournal() {
+            try {
+                getJournal().replay(this::applyKeepOfflineNode);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to replay keepOffline journal", e);
+            }
+        }
+
+        @NonNull
+        private List<MaintenanceWindow> parseMaintenanceWindows() {
+            try {
+                return MaintenanceWindow.parseAll(maintenanceWindows);
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Ignoring invalid maintenance windows", e);
+                return Collections.emptyList();
+            }
+        }
+
+        @NonNull
+        private List<NodePool> createNamedPools() {
+            final List<NodePool> result = new ArrayList<>();
+            for (final NamedPool pool : getPools()) {
+                if (NamedPool.isValidName(pool.getName())) {
+                    result.add(new NodePool(pool.getName(), pool.getEffectiveLabelPrefix(),
+                            parseElements(pool.getMasterImages()), parseElements(pool.getTestImages()),
+                            parseLabels(pool.getPoolLabels()), pool.isKeepOffline(),
+                            parseLabels(atomEntries(pool.getKeepOfflineNodes())))
+                            .withKeepOfflineExpressions(
+                                    compileExpressions(expressionEntries(pool.getKeepOfflineNodes()))));
+                } else {
+                    LOGGER.log(Level.WARNING, "Ignoring pool with invalid name ''{0}''", pool.getName());
+                }
+            }
+            return result;
+        }
+
+        @NonNull
+        private List<Label> compileKeepOfflineExpressions() {
+            return compileExpressions(getKeepOfflineExpressions());
+        }
+
+        @NonNull
+        private List<Label> compileExpressions(@CheckForNull Collection<String> expressions) {
+            final List<Label> result = new ArrayList<>();
+            for (final String expression : Objects.<Collection<String>>requireNonNullElse(expressions,
+                    Collections.emptySet())) {
+                try {
+                    result.add(parseExpression(expression));
+                } catch (IllegalArgumentException e) {
+                    LOGGER.log(Level.WARNING, "Ignoring invalid label expression ''{0}''", expression);
+                }
+            }
+            return result;
+        }
+
+        protected Label parseExpression(@NonNull String expression) {
+            return Label.parseExpression(expression);
+        }
+
         protected Set<LabelAtom> parseLabels(@Nullable String labelString) {
             return Label.parse(Objects.requireNonNullElse(labelString, "").trim());
         }
@@ -201,6 +653,72 @@ public class PoolConfiguration extends GlobalConfiguration {
             return c == null ? "" : String.join(" ", c).trim();
         }
 
+        @NonNull
+        static FormValidation validateImages(@CheckForNull String images) {
+            final List<String> entries = Arrays.asList(Objects.requireNonNullElse(images, "").trim().split("\\s+"));
+            for (final String image : entries) {
+                final String error = ImagePatterns.validate(image);
+                if (error != null) {
+                    return FormValidation.error(Messages.PoolConfiguration_invalidPattern(image, error));
+                }
+            }
+            final String error = ImagePatterns.validateAll(entries);
+            if (error != null) {
+                return FormValidation.error(
+                        Messages.PoolConfiguration_invalidPattern(String.join(" ", entries), error));
+            }
+            return FormValidation.ok();
+        }
+
+        private static void checkImages(@NonNull JSONObject json, @NonNull String key, @NonNull String field)
+                throws FormException {
+            final FormValidation validation = validateImages(json.optString(key));
+            if (validation.kind != FormValidation.Kind.OK) {
+                throw new FormException(validation.getMessage(), field);
+            }
+        }
+
+        @NonNull
+        static FormValidation validateExpressions(@CheckForNull String entries,
+                                                  @NonNull Function<String, Label> parser) {
+            for (final String expression : Objects.<Collection<String>>requireNonNullElse(expressionEntries(entries),
+                    Collections.emptySet())) {
+                try {
+                    parser.apply(expression);
+                } catch (IllegalArgumentException e) {
+                    return FormValidation.error(Messages.PoolConfiguration_invalidExpression(expression,
+                            e.getMessage()));
+                }
+            }
+            return FormValidation.ok();
+        }
+
+        @NonNull
+        static String checkKeepOfflineEntry(@CheckForNull String entry) {
+            if (entry == null || entry.isBlank() || entry.indexOf('\n') >= 0 || entry.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException(Messages.PoolConfiguration_invalidEntry());
+            }
+            return entry.trim();
+        }
+
+        @NonNull
+        static String atomEntries(@CheckForNull String entries) {
+            return lines(entries).filter(line -> !KeepOfflineExpressions.isExpression(line))
+                    .collect(Collectors.joining(" "));
+        }
+
+        @CheckForNull
+        static Set<String> expressionEntries(@CheckForNull String entries) {
+            final Set<String> result = lines(entries).filter(KeepOfflineExpressions::isExpression)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            return result.isEmpty() ? null : result;
+        }
+
+        @NonNull
+        private static Stream<String> lines(@CheckForNull String entries) {
+            return Objects.requireNonNullElse(entries, "").lines().map(String::trim).filter(line -> !line.isEmpty());
+        }
+
         @NonNull
         private FormValidation validateParameter(@CheckForNull String value, @NonNull String name) {
             if (value == null) {
@@ -27,35 +27,57 @@ package io.jhnc.jenkins.plugins.poolnodes;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.ExtensionList;
 import hudson.model.Node;
 import hudson.model.Queue;
 import hudson.model.labels.LabelAtom;
 import hudson.model.queue.CauseOfBlockage;
 import hudson.model.queue.QueueTaskDispatcher;
+import jenkins.model.NodeListener;
+import jenkins.util.SystemProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Extension
 public class PoolImageBlockingDispatcher extends QueueTaskDispatcher {
+    private static final boolean INCREMENTAL = SystemProperties.getBoolean(
+            PoolImageBlockingDispatcher.class.getName() + ".incremental");
     private final NodeNames nodeNames;
+    private final boolean incremental;
+    private final NodeDrainer drainer;
+    private final ConcurrentMap<String, Restriction> restrictions = new ConcurrentHashMap<>();
 
     public PoolImageBlockingDispatcher() {
         this(new NodeNames());
     }
 
     protected PoolImageBlockingDispatcher(@NonNull NodeNames nodeNames) {
+        this(nodeNames, INCREMENTAL);
+    }
+
+    PoolImageBlockingDispatcher(@NonNull NodeNames nodeNames, boolean incremental) {
+        this(nodeNames, incremental, NodeDrainer.INSTANCE);
+    }
+
+    PoolImageBlockingDispatcher(@NonNull NodeNames nodeNames, boolean incremental, @NonNull NodeDrainer drainer) {
         this.nodeNames = nodeNames;
+        this.incremental = incremental;
+        this.drainer = drainer;
     }
 
 
     @CheckForNull
     @Override
     public CauseOfBlockage canTake(Node node, Queue.BuildableItem item) {
+        if (incremental) {
+            return getRestriction(node);
+        }
+        if (drainer.isAnyDraining() && drainer.isDraining(node.getNodeName())) {
+            return new DrainingNodeBlockage(node.getNodeName());
+        }
         if (isRestrictedNode(node)) {
-            return new CauseOfBlockage() {
-                @Override
-                public String getShortDescription() {
-                    return Messages.PoolImageBlockingDispatcher_restricted(node.getNodeName());
-                }
-            };
+            return new RestrictedNodeBlockage(node.getNodeName());
         }
 
         return null;
@@ -65,7 +87,102 @@ public class PoolImageBlockingDispatcher extends QueueTaskDispatcher {
         return node.getAssignedLabels().contains(LabelAtom.get(PoolImageLabel.MASTER.getLabelName()));
     }
 
+    void forget(@NonNull Node node) {
+        restrictions.remove(node.getNodeName());
+    }
+
+    @CheckForNull
+    private CauseOfBlockage getRestriction(@NonNull Node node) {
+        final PoolSnapshot snapshot = nodeNames.getSnapshot();
+        final long generation = snapshot == null ? 0 : snapshot.getGeneration();
+        final long drains = drainer.getChanges();
+        final String nodeName = node.getNodeName();
+        Restriction restriction = restrictions.get(nodeName);
+
+        if (restriction == null || restriction.node != node || restriction.generation != generation
+                || restriction.drains != drains) {
+            restriction = new Restriction(node, generation, drains, createBlockage(node, snapshot));
+            restrictions.put(nodeName, restriction);
+        }
+        return restriction.blockage;
+    }
+
+    @CheckForNull
+    private CauseOfBlockage createBlockage(@NonNull Node node, @CheckForNull PoolSnapshot snapshot) {
+        if (drainer.isDraining(node.getNodeName())) {
+            return new DrainingNodeBlockage(node.getNodeName());
+        }
+        if (nodeNames.isMasterNode(node, snapshot) || hasMasterImageLabel(node)) {
+            return new RestrictedNodeBlockage(node.getNodeName());
+        }
+        return null;
+    }
+
     private boolean isRestrictedNode(Node node) {
         return nodeNames.isMasterNode(node) || hasMasterImageLabel(node);
     }
+
+
+    private static final class Restriction {
+        private final Node node;
+        private final long generation;
+        private final long drains;
+        private final CauseOfBlockage blockage;
+
+        Restriction(@NonNull Node node, long generation, long drains, @CheckForNull CauseOfBlockage blockage) {
+            this.node = node;
+            this.generation = generation;
+            this.drains = drains;
+            this.blockage = blockage;
+        }
+    }
+
+
+    public static class RestrictedNodeBlockage extends CauseOfBlockage {
+        private final String nodeName;
+
+        public RestrictedNodeBlockage(@NonNull String nodeName) {
+            this.nodeName = nodeName;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return Messages.PoolImageBlockingDispatcher_restricted(nodeName);
+        }
+    }
+
+
+    public static class DrainingNodeBlockage extends CauseOfBlockage {
+        private final String nodeName;
+
+        public DrainingNodeBlockage(@NonNull String nodeName) {
+            this.nodeName = nodeName;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return Messages.PoolImageBlockingDispatcher_draining(nodeName);
+        }
+    }
+
+
+    @Extension
+    public static class RestrictionInvalidator extends NodeListener {
+        @Override
+        protected void onUpdated(@NonNull Node oldOne, @NonNull Node newOne) {
+            forget(oldOne);
+            forget(newOne);
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            forget(node);
+        }
+
+        private void forget(@NonNull Node node) {
+            for (final PoolImageBlockingDispatcher dispatcher : ExtensionList.lookup(PoolImageBlockingDispatcher.class)) {
+                dispatcher.forget(node);
+            }
+        }
+    }
 }
@@ -24,21 +24,26 @@
 
 package io.jhnc.jenkins.plugins.poolnodes;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.LabelFinder;
 import hudson.model.Node;
 import hudson.model.labels.LabelAtom;
-import jenkins.model.Jenkins;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Extension
+@SuppressWarnings("PMD.AvoidUsingVolatile")
 public class PoolLabelFinder extends LabelFinder {
     private final NodeNames nodeNames;
+    private volatile LabelSets labelSets;
 
     public PoolLabelFinder() {
         this(new NodeNames());
@@ -51,17 +56,18 @@ public class PoolLabelFinder extends LabelFinder {
     @NonNull
     @Override
     public Collection<LabelAtom> findLabels(@NonNull Node node) {
-        if (nodeNames.isMasterNode(node)) {
-            return assignedLabels(PoolImageLabel.MASTER);
-        }
-        if (nodeNames.isTestNode(node)) {
-            return assignedLabels(PoolImageLabel.TEST);
-        }
-        if (nodeNames.isProdNode(node)) {
-            return Stream.concat(assignedLabels(PoolImageLabel.PRODUCTION).stream(),
-                    getConfiguredLabel().stream()).collect(Collectors.toSet());
+        return findPoolLabels(node);
+    }
+
+    @NonNull
+    Set<LabelAtom> findPoolLabels(@NonNull Node node) {
+        final PoolSnapshot snapshot = nodeNames.getSnapshot();
+        final PoolAssignment assignment = nodeNames.getAssignment(node, snapshot);
+
+        if (assignment == null) {
+            return Collections.emptySet();
         }
-        return Collections.emptySet();
+        return getLabelSets(snapshot).get(assignment);
     }
 
     protected Collection<LabelAtom> assignedLabels(PoolImageLabel image) {
@@ -69,8 +75,67 @@ public class PoolLabelFinder extends LabelFinder {
     }
 
     protected Collection<LabelAtom> getConfiguredLabel() {
-        final PoolConfiguration.DescriptorImpl descriptor = (PoolConfiguration.DescriptorImpl) Jenkins
-                .get().getDescriptor(PoolConfiguration.class);
-        return descriptor == null ? null : descriptor.getPoolLabelAtoms();
+        final PoolSnapshot snapshot = nodeNames.getSnapshot();
+        return snapshot == null ? Collections.emptySet() : snapshot.getPoolLabelAtoms();
+    }
+
+    @NonNull
+    private LabelSets getLabelSets(@CheckForNull PoolSnapshot snapshot) {
+        final long generation = snapshot == null ? 0 : snapshot.getGeneration();
+        final LabelSets current = labelSets;
+
+        if (current != null && current.generation == generation) {
+            return current;
+        }
+
+        final Map<PoolImageLabel, Set<LabelAtom>> labels = new EnumMap<>(PoolImageLabel.class);
+        for (final PoolImageLabel imageType : PoolImageLabel.values()) {
+            labels.put(imageType, Collections.unmodifiableSet(new LinkedHashSet<>(assignedLabels(imageType))));
+        }
+
+        final Map<String, Set<LabelAtom>> prodLabels = new HashMap<>();
+        prodLabels.put(NodePool.DEFAULT_NAME, withConfiguredLabels(labels, getConfiguredLabel()));
+        if (snapshot != null) {
+            for (final NodePool pool : snapshot.getPools()) {
+                prodLabels.putIfAbsent(pool.getName(), withConfiguredLabels(labels, pool.getPoolLabelAtoms()));
+            }
+        }
+
+        final LabelSets updated = new LabelSets(generation, labels, prodLabels);
+        labelSets = updated;
+        return updated;
+    }
+
+    @NonNull
+    private static Set<LabelAtom> withConfiguredLabels(@NonNull Map<PoolImageLabel, Set<LabelAtom>> labels,
+                                                       @NonNull Collection<LabelAtom> configured) {
+        final Set<LabelAtom> atoms = new LinkedHashSet<>(labels.get(PoolImageLabel.PRODUCTION));
+        atoms.addAll(configured);
+        return Collections.unmodifiableSet(atoms);
+    }
+
+
+    private static final class LabelSets {
+        private final long generation;
+        private final Map<PoolImageLabel, Set<LabelAtom>> labels;
+        private final Map<String, Set<LabelAtom>> prodLabels;
+
+        LabelSets(long generation, @NonNull Map<PoolImageLabel, Set<LabelAtom>> labels,
+                  @NonNull Map<String, Set<LabelAtom>> prodLabels) {
+            this.generation = generation;
+            this.labels = labels;
+            this.prodLabels = prodLabels;
+        }
+
+        @NonNull
+        Set<LabelAtom> get(@NonNull PoolAssignment assignment) {
+            if (assignment.isProd()) {
+                final Set<LabelAtom> poolLabels = prodLabels.get(assignment.getPoolName());
+                if (poolLabels != null) {
+                    return poolLabels;
+                }
+            }
+            return labels.get(assignment.getImageType());
+        }
     }
 }
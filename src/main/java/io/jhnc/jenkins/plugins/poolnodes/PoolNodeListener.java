@@ -3,89 +3,668 @@ package io.jhnc.jenkins.plugins.poolnodes;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.ExtensionList;
 import hudson.FilePath;
+import hudson.init.Terminator;
 import hudson.model.Computer;
+import hudson.model.Label;
 import hudson.model.Node;
+import hudson.model.Queue;
 import hudson.model.TaskListener;
 import hudson.remoting.Channel;
 import hudson.slaves.ComputerListener;
+import hudson.model.labels.LabelAtom;
 import hudson.slaves.OfflineCause;
 import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 @Extension
 public class PoolNodeListener extends ComputerListener {
+    private static final Logger LOGGER = Logger.getLogger(PoolNodeListener.class.getName());
+    private static final int RECONCILE_PARALLELISM = SystemProperties.getInteger(
+            PoolNodeListener.class.getName() + ".reconcileParallelism",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long DEBOUNCE_MILLIS = SystemProperties.getLong(
+            PoolNodeListener.class.getName() + ".debounceMillis", 250L);
     private final NodeNames nodeNames;
+    private final ReconciliationExecutor executor;
+    private final NodeLabelIndex labelIndex;
+    private final OfflineStateEngine offlineState = new OfflineStateEngine();
+    private final ReconciliationScheduler scheduler;
+    private final MaintenanceScheduler maintenance;
+    private final ElasticRelease elastic = new ElasticRelease();
+    private PoolSnapshot appliedSnapshot;
+    private Map<Computer, AppliedNode> appliedNodes = Collections.emptyMap();
+    private ReconciliationProgress lastProgress = ReconciliationProgress.done();
+    private WaveRelease release;
+    private boolean historiesRestored;
 
     public PoolNodeListener() {
         this(new NodeNames());
     }
 
     protected PoolNodeListener(NodeNames nodeNames) {
+        this(nodeNames, new ReconciliationExecutor(RECONCILE_PARALLELISM), NodeLabelIndex.INSTANCE, DEBOUNCE_MILLIS);
+    }
+
+    PoolNodeListener(@NonNull NodeNames nodeNames, @NonNull ReconciliationExecutor executor,
+                     @NonNull NodeLabelIndex labelIndex, long debounceMillis) {
         this.nodeNames = nodeNames;
+        this.executor = executor;
+        this.labelIndex = labelIndex;
+        this.scheduler = new ReconciliationScheduler(debounceMillis,
+                batch -> batch.isAll() ? reconcile() : reconcile(batch.getNodeNames()));
+        this.maintenance = new MaintenanceScheduler(System::currentTimeMillis, this::getTimer,
+                this::onMaintenanceChange);
     }
 
 
     @Override
     public void preOnline(Computer computer, Channel channel, FilePath root, TaskListener listener) {
-        final var descriptor = getDescriptor();
-
-        if (computer != null && descriptor != null) {
-            if (nodeNames.isProdNode(computer.getNode())) {
-                updatePoolOnlineState(computer, descriptor);
-            }
+        final var snapshot = getEffectiveSnapshot();
 
-            updateNodeOnlineState(computer, descriptor);
+        if (computer != null && snapshot != null) {
+            final Node node = computer.getNode();
+            final PoolAssignment assignment = nodeNames.getAssignment(node, snapshot);
+            labelIndex.update(node, findPoolLabels(node));
+            updateOnlineState(computer, assignment == null ? null : assignment.getPoolName(),
+                    assignment != null && assignment.isProd() ? assignment.getPoolName() : null, snapshot,
+                    labelIndex.unindexed(snapshot.getKeepOfflineNodes()));
         }
     }
 
     @Override
     public void onConfigurationChange() {
-        final var descriptor = getDescriptor();
+        final var snapshot = getEffectiveSnapshot();
 
-        if (descriptor != null) {
-            for (final Computer computer : getComputers()) {
-                if (nodeNames.isProdNode(computer.getNode())) {
-                    updatePoolOnlineState(computer, descriptor);
-                }
+        if (snapshot != null && !isApplied(snapshot)) {
+            scheduler.requestAll();
+        }
+    }
+
+    @NonNull
+    public ReconciliationProgress reconcile() {
+        final var snapshot = getEffectiveSnapshot();
+
+        if (snapshot == null) {
+            return ReconciliationProgress.done();
+        }
+        return reconcile(snapshot, getComputers());
+    }
+
+    @NonNull
+    public ReconciliationProgress reconcile(@NonNull Collection<String> nodeNames) {
+        final var snapshot = getEffectiveSnapshot();
+
+        if (snapshot == null) {
+            return ReconciliationProgress.done();
+        }
+        return reconcileNodes(snapshot, nodeNames);
+    }
+
+    public boolean addKeepOfflineNode(@NonNull String entry) {
+        return updateKeepOfflineNode(entry, true);
+    }
+
+    public boolean removeKeepOfflineNode(@NonNull String entry) {
+        return updateKeepOfflineNode(entry, false);
+    }
+
+    @NonNull
+    public synchronized ReconciliationProgress getLastProgress() {
+        return lastProgress;
+    }
+
+    @NonNull
+    public OfflineStateEngine getOfflineState() {
+        return offlineState;
+    }
 
-                updateNodeOnlineState(computer, descriptor);
+    @NonNull
+    public MaintenanceScheduler getMaintenance() {
+        return maintenance;
+    }
+
+    @NonNull
+    public ElasticRelease getElastic() {
+        return elastic;
+    }
+
+    @NonNull
+    public PoolState getState() {
+        return new PoolState(getEffectiveSnapshot(), nodeNames, labelIndex, elastic, NodeDrainer.get());
+    }
+
+    @Terminator
+    public static void shutdownAll() {
+        for (final PoolNodeListener listener : ExtensionList.lookup(PoolNodeListener.class)) {
+            listener.shutdown();
+        }
+    }
+
+    public void sampleDemand() {
+        final var snapshot = getEffectiveSnapshot();
+
+        if (snapshot != null) {
+            final DemandHistoryFile historyFile = getDemandHistoryFile();
+            restoreHistories(historyFile);
+            elastic.retainHistories(snapshot.getPools().stream().map(NodePool::getName).collect(Collectors.toSet()));
+            for (final String nodeName : updateElastic(snapshot)) {
+                scheduler.request(nodeName);
             }
+            saveHistories(historyFile);
         }
     }
 
+    @CheckForNull
+    public synchronized WaveRelease getRelease() {
+        return release;
+    }
+
     @CheckForNull
     protected PoolConfiguration.DescriptorImpl getDescriptor() {
         return (PoolConfiguration.DescriptorImpl) Jenkins.get().getDescriptor(PoolConfiguration.class);
     }
 
+    @CheckForNull
+    protected PoolSnapshot getSnapshot() {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
+        return descriptor == null ? null : descriptor.getSnapshot();
+    }
+
+    @CheckForNull
+    private DemandHistoryFile getDemandHistoryFile() {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
+        return descriptor == null ? null : descriptor.getDemandHistoryFile();
+    }
+
+    @CheckForNull
+    private PoolSnapshot getEffectiveSnapshot() {
+        final PoolSnapshot snapshot = getSnapshot();
+        return snapshot == null ? null : maintenance.apply(snapshot);
+    }
+
     @NonNull
     protected List<Computer> getComputers() {
         return Arrays.stream(Jenkins.get().getComputers()).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
-    private void updatePoolOnlineState(@NonNull Computer computer, @NonNull PoolConfiguration.DescriptorImpl descriptor) {
-        computer.setTemporaryOfflineCause(descriptor.isKeepOffline() ? new PoolOfflineCause() : null);
+    @CheckForNull
+    protected Computer getComputer(@NonNull String nodeName) {
+        return Jenkins.get().getComputer(nodeName);
     }
 
-    private void updateNodeOnlineState(@NonNull Computer computer, @NonNull PoolConfiguration.DescriptorImpl descriptor) {
-        if (shouldKeepOffline(computer.getNode(), descriptor)) {
-            computer.setTemporaryOfflineCause(new NodeOfflineCause());
-        } else if (computer.isOffline() && computer.getOfflineCause() instanceof NodeOfflineCause) {
-            computer.setTemporaryOfflineCause(null);
+    @NonNull
+    protected ScheduledExecutorService getTimer() {
+        return Timer.get();
+    }
+
+    protected int getQueueLength() {
+        return Jenkins.get().getQueue().countBuildableItems();
+    }
+
+    @NonNull
+    protected List<? extends Queue.Item> getBuildableItems() {
+        return Jenkins.get().getQueue().getBuildableItems();
+    }
+
+    @NonNull
+    protected Set<LabelAtom> findPoolLabels(@CheckForNull Node node) {
+        return node == null
+                ? Collections.emptySet()
+                : ExtensionList.lookupSingleton(PoolLabelFinder.class).findPoolLabels(node);
+    }
+
+    protected void resetLabels(@NonNull Set<LabelAtom> changedLabels) {
+        int reset = 0;
+        for (final Label label : Jenkins.get().getLabels()) {
+            if (!Collections.disjoint(label.listAtoms(), changedLabels)) {
+                label.reset();
+                ++reset;
+            }
         }
+        LOGGER.log(Level.FINE, "Reset {0} labels affected by {1} changed pool labels",
+                new Object[]{reset, changedLabels.size()});
     }
 
-    private boolean shouldKeepOffline(@CheckForNull Node node, @NonNull PoolConfiguration.DescriptorImpl descriptor) {
-        if (node == null) {
+    void onNodeChanged(@NonNull String nodeName) {
+        scheduler.request(nodeName);
+    }
+
+    void shutdown() {
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    void onMaintenanceChange(@NonNull Collection<MaintenanceWindow> windows) {
+        final Set<LabelAtom> targets = new HashSet<>();
+        for (final MaintenanceWindow window : windows) {
+            if (window.isPoolWide()) {
+                scheduler.requestAll();
+                return;
+            }
+            targets.add(window.getTarget());
+        }
+
+        final var snapshot = getEffectiveSnapshot();
+        if (snapshot != null && !targets.isEmpty()) {
+            reconcileKeepOfflineNodes(snapshot, targets, false);
+        }
+    }
+
+    private boolean updateKeepOfflineNode(@NonNull String entry, boolean add) {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor();
+        if (descriptor == null) {
             return false;
         }
-        return !Collections.disjoint(node.getAssignedLabels(), descriptor.getKeepOfflineNodesLabelAtoms());
+
+        final boolean changed = add ? descriptor.addKeepOfflineNode(entry) : descriptor.removeKeepOfflineNode(entry);
+        final var snapshot = getEffectiveSnapshot();
+        if (changed && snapshot != null) {
+            final boolean expression = KeepOfflineExpressions.isExpression(entry);
+            final Set<LabelAtom> labels = expression
+                    ? KeepOfflineExpressions.requiredLabels(descriptor.parseExpression(entry.trim()))
+                    : labelIndex.parse(entry.trim());
+            if (labels == null) {
+                reconcile(snapshot, getComputers());
+            } else {
+                reconcileKeepOfflineNodes(snapshot, labels, expression);
+            }
+        }
+        return changed;
+    }
+
+    private synchronized void restoreHistories(@CheckForNull DemandHistoryFile file) {
+        if (file == null || historiesRestored) {
+            return;
+        }
+
+        try {
+            elastic.restoreHistories(file.read());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read demand history", e);
+        }
+        historiesRestored = true;
+    }
+
+    private void saveHistories(@CheckForNull DemandHistoryFile file) {
+        if (file == null) {
+            return;
+        }
+
+        final Map<String, DemandHistory> histories = elastic.getChangedHistories();
+        if (histories == null) {
+            return;
+        }
+
+        try {
+            file.write(histories);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save demand history", e);
+        }
+    }
+
+    private synchronized boolean isApplied(@NonNull PoolSnapshot snapshot) {
+        return appliedSnapshot != null && appliedSnapshot.getGeneration() == snapshot.getGeneration()
+                && appliedSnapshot.hasSameOfflineState(snapshot);
+    }
+
+    @NonNull
+    private synchronized ReconciliationProgress reconcile(@NonNull PoolSnapshot snapshot, @NonNull List<Computer> computers) {
+        final Set<String> changedPools = appliedSnapshot == null
+                ? poolNames(snapshot)
+                : symmetricDifference(appliedSnapshot.getOfflinePools(), snapshot.getOfflinePools());
+        final Set<LabelAtom> changedKeepOfflineNodes = snapshot.changedKeepOfflineNodes(appliedSnapshot);
+        final Set<String> affectedNodes = labelIndex.nodesWithAny(changedKeepOfflineNodes);
+        final Set<LabelAtom> unindexedChanges = labelIndex.unindexed(changedKeepOfflineNodes);
+        final PoolSnapshot previousExpressions = appliedSnapshot == null
+                || appliedSnapshot.hasSameKeepOfflineExpressions(snapshot) ? null : appliedSnapshot;
+        final boolean staged = appliedSnapshot != null && snapshot.getReleasePolicy().isStaged();
+        final Set<LabelAtom> changedLabels = new HashSet<>();
+        final Map<Computer, AppliedNode> reconciled = new HashMap<>();
+        final Map<Computer, AppliedNode> pending = new LinkedHashMap<>();
+        final List<Computer> held = new ArrayList<>();
+
+        for (final Computer computer : computers) {
+            final Node node = computer.getNode();
+            final AppliedNode current = new AppliedNode(node, nodeNames.getAssignment(node, snapshot),
+                    isReleased(computer, snapshot), findPoolLabels(node));
+            final AppliedNode previous = appliedNodes.get(computer);
+            final boolean nodeChanged = !current.isSameAs(previous);
+            final boolean poolChanged = current.isProd() && changedPools.contains(current.getPoolName());
+
+            labelIndex.update(node, current.getPoolLabels());
+            if (previous != null) {
+                previous.collectChangedLabels(current, changedLabels);
+            }
+            if (staged && poolChanged && !snapshot.isKeepOffline(current.getPoolName())) {
+                held.add(computer);
+            } else if (nodeChanged || poolChanged || isAffected(node, affectedNodes, unindexedChanges)
+                    || current.hasChangedPoolLabelsIn(previous, snapshot.getKeepOfflineNodes())
+                    || isMatchChanged(node, current.getPoolName(), previousExpressions, snapshot)) {
+                pending.put(computer, current);
+            }
+            reconciled.put(computer, current);
+        }
+
+        if (!changedPools.isEmpty() && release != null) {
+            release.cancel();
+            release = null;
+        }
+        this.appliedSnapshot = snapshot;
+        this.appliedNodes = reconciled;
+        if (!changedLabels.isEmpty()) {
+            resetLabels(changedLabels);
+        }
+
+        final ReconciliationProgress progress = execute(snapshot, pending);
+        if (!held.isEmpty()) {
+            release = new WaveRelease(held, snapshot.getReleasePolicy(), this::releaseWave, this::getQueueLength,
+                    getTimer());
+            release.start();
+        }
+        return progress;
+    }
+
+    private synchronized void releaseWave(@NonNull List<Computer> wave) {
+        final Map<Computer, AppliedNode> pending = new LinkedHashMap<>();
+
+        for (final Computer computer : wave) {
+            final AppliedNode applied = appliedNodes.get(computer);
+            if (applied != null) {
+                pending.put(computer, applied);
+            }
+        }
+        execute(appliedSnapshot, pending);
+    }
+
+    @NonNull
+    private synchronized ReconciliationProgress reconcileNodes(@NonNull PoolSnapshot snapshot,
+                                                               @NonNull Collection<String> names) {
+        if (!isApplied(snapshot)) {
+            return reconcile(snapshot, getComputers());
+        }
+
+        final Map<Computer, AppliedNode> pending = new LinkedHashMap<>();
+        final Set<String> removed = new HashSet<>();
+
+        for (final String name : names) {
+            final Computer computer = getComputer(name);
+
+            if (computer == null) {
+                removed.add(name);
+                continue;
+            }
+
+            final Node node = computer.getNode();
+            final AppliedNode current = new AppliedNode(node, nodeNames.getAssignment(node, snapshot),
+                    isReleased(computer, snapshot), findPoolLabels(node));
+
+            labelIndex.update(node, current.getPoolLabels());
+            if (!current.isSameAs(appliedNodes.get(computer))) {
+                pending.put(computer, current);
+            }
+            appliedNodes.put(computer, current);
+        }
+
+        if (!removed.isEmpty()) {
+            appliedNodes.values().removeIf(applied -> applied.isNamedAnyOf(removed));
+        }
+        return execute(snapshot, pending);
+    }
+
+    @NonNull
+    private synchronized ReconciliationProgress reconcileKeepOfflineNodes(@NonNull PoolSnapshot snapshot,
+                                                                          @NonNull Set<LabelAtom> labels,
+                                                                          boolean expression) {
+        if (appliedSnapshot == null
+                || appliedSnapshot.getConfigurationGeneration() != snapshot.getConfigurationGeneration()
+                || !(expression ? appliedSnapshot.hasSameOfflinePools(snapshot)
+                : appliedSnapshot.hasSamePoolState(snapshot))
+                || !labelIndex.unindexed(labels).isEmpty()) {
+            return reconcile(snapshot, getComputers());
+        }
+
+        final Map<Computer, AppliedNode> pending = new LinkedHashMap<>();
+        for (final String name : labelIndex.nodesWithAny(labels)) {
+            final Computer computer = getComputer(name);
+            final AppliedNode applied = computer == null ? null : appliedNodes.get(computer);
+
+            if (applied != null) {
+                pending.put(computer, applied);
+            }
+        }
+        this.appliedSnapshot = snapshot;
+        return execute(snapshot, pending);
+    }
+
+    @NonNull
+    private synchronized Set<String> updateElastic(@NonNull PoolSnapshot snapshot) {
+        final ReleasePolicy policy = snapshot.getReleasePolicy();
+
+        if (appliedSnapshot == null || !policy.isElastic() && elastic.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        final Map<String, List<Computer>> candidates = new HashMap<>();
+        if (!snapshot.isForcedOffline()) {
+            final Set<LabelAtom> unindexed = labelIndex.unindexed(snapshot.getKeepOfflineNodes());
+            appliedNodes.forEach((computer, applied) -> {
+                final String prodPool = applied.getProdPool();
+                if (snapshot.isKeepOffline(prodPool)
+                        && !shouldKeepOffline(computer.getNode(), applied.getPoolName(), snapshot, unindexed)) {
+                    candidates.computeIfAbsent(prodPool, k -> new ArrayList<>()).add(computer);
+                }
+            });
+            candidates.values().forEach(computers -> computers.sort(Comparator.comparing(Computer::getName)));
+        }
+
+        final Map<String, ElasticRelease.Demand> demand = candidates.isEmpty() || !policy.isElastic()
+                ? Collections.emptyMap()
+                : ElasticRelease.sample(getBuildableItems(), snapshot);
+        return elastic.update(policy, candidates, demand, System.currentTimeMillis());
+    }
+
+    @NonNull
+    private synchronized ReconciliationProgress execute(@NonNull PoolSnapshot snapshot,
+                                                        @NonNull Map<Computer, AppliedNode> pending) {
+        final Set<LabelAtom> unindexed = labelIndex.unindexed(snapshot.getKeepOfflineNodes());
+        final Map<Computer, Runnable> tasks = new LinkedHashMap<>();
+        pending.forEach((computer, applied) -> tasks.put(computer,
+                () -> updateOnlineState(computer, applied.getPoolName(), applied.getProdPool(), snapshot, unindexed)));
+
+        this.lastProgress = executor.execute(tasks);
+        return lastProgress;
+    }
+
+    private boolean isAffected(@CheckForNull Node node, @NonNull Set<String> affectedNodes,
+                               @NonNull Set<LabelAtom> unindexedChanges) {
+        return node != null && (affectedNodes.contains(node.getNodeName()) || hasAnyLabel(node, unindexedChanges));
+    }
+
+    private static boolean isMatchChanged(@CheckForNull Node node, @CheckForNull String poolName,
+                                          @CheckForNull PoolSnapshot previous, @NonNull PoolSnapshot current) {
+        return previous != null && previous.matchesKeepOfflineExpressions(node, poolName)
+                != current.matchesKeepOfflineExpressions(node, poolName);
+    }
+
+    private void updateOnlineState(@NonNull Computer computer, @CheckForNull String poolName,
+                                   @CheckForNull String prodPool, @NonNull PoolSnapshot snapshot,
+                                   @NonNull Set<LabelAtom> unindexed) {
+        final boolean keepNodeOffline = shouldKeepOffline(computer.getNode(), poolName, snapshot, unindexed);
+        final boolean keepPoolOffline = snapshot.isKeepOffline(prodPool) && !isReleased(computer, snapshot);
+        offlineState.apply(computer, OfflineStateEngine.decide(prodPool != null, keepPoolOffline, keepNodeOffline),
+                snapshot.isDrainBeforeOffline() || snapshot.getReleasePolicy().isElastic());
+    }
+
+    private boolean isReleased(@NonNull Computer computer, @NonNull PoolSnapshot snapshot) {
+        return !snapshot.isForcedOffline() && elastic.isReleased(computer.getName());
+    }
+
+    private boolean shouldKeepOffline(@CheckForNull Node node, @CheckForNull String poolName,
+                                      @NonNull PoolSnapshot snapshot, @NonNull Set<LabelAtom> unindexed) {
+        final Set<LabelAtom> poolNodes = snapshot.getPoolKeepOfflineNodes(poolName);
+        return labelIndex.hasAnyLabel(node, snapshot.getGlobalKeepOfflineNodes())
+                || labelIndex.hasAnyLabel(node, poolNodes)
+                || hasAnyScopedLabel(node, unindexed, snapshot.getGlobalKeepOfflineNodes(), poolNodes)
+                || snapshot.matchesKeepOfflineExpressions(node, poolName);
+    }
+
+    private static boolean hasAnyScopedLabel(@CheckForNull Node node, @NonNull Set<LabelAtom> labels,
+                                             @NonNull Set<LabelAtom> globalScope, @NonNull Set<LabelAtom> poolScope) {
+        if (node == null || labels.isEmpty()) {
+            return false;
+        }
+        for (final LabelAtom label : node.getAssignedLabels()) {
+            if (labels.contains(label) && (globalScope.contains(label) || poolScope.contains(label))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnyLabel(@CheckForNull Node node, @NonNull Set<LabelAtom> labels) {
+        if (node == null || labels.isEmpty()) {
+            return false;
+        }
+        return !Collections.disjoint(node.getAssignedLabels(), labels);
+    }
+
+    @NonNull
+    private static Set<String> poolNames(@NonNull PoolSnapshot snapshot) {
+        final Set<String> result = new HashSet<>();
+        for (final NodePool pool : snapshot.getPools()) {
+            result.add(pool.getName());
+        }
+        return result;
+    }
+
+    @NonNull
+    private static <T> Set<T> symmetricDifference(@NonNull Set<T> a, @NonNull Set<T> b) {
+        final Set<T> result = new HashSet<>();
+        for (final T element : a) {
+            if (!b.contains(element)) {
+                result.add(element);
+            }
+        }
+        for (final T element : b) {
+            if (!a.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+
+    private static final class AppliedNode {
+        private final Node node;
+        private final String labelString;
+        private final PoolImageLabel imageType;
+        private final String poolName;
+        private final boolean released;
+        private final Set<LabelAtom> poolLabels;
+
+        AppliedNode(@CheckForNull Node node, @CheckForNull PoolAssignment assignment, boolean released,
+                    @NonNull Set<LabelAtom> poolLabels) {
+            this.node = node;
+            this.labelString = node == null ? null : node.getLabelString();
+            this.imageType = assignment == null ? null : assignment.getImageType();
+            this.poolName = assignment == null ? null : assignment.getPoolName();
+            this.released = released;
+            this.poolLabels = poolLabels;
+        }
+
+        boolean isProd() {
+            return imageType == PoolImageLabel.PRODUCTION;
+        }
+
+        @CheckForNull
+        String getPoolName() {
+            return poolName;
+        }
+
+        @CheckForNull
+        String getProdPool() {
+            return isProd() ? poolName : null;
+        }
+
+        @NonNull
+        Set<LabelAtom> getPoolLabels() {
+            return poolLabels;
+        }
+
+        boolean hasChangedPoolLabelsIn(@CheckForNull AppliedNode previous, @NonNull Set<LabelAtom> labels) {
+            if (previous == null || labels.isEmpty() || poolLabels == previous.poolLabels
+                    || poolLabels.equals(previous.poolLabels)) {
+                return false;
+            }
+            return !Collections.disjoint(symmetricDifference(poolLabels, previous.poolLabels), labels);
+        }
+
+        void collectChangedLabels(@NonNull AppliedNode current, @NonNull Set<LabelAtom> changed) {
+            if (poolLabels != current.poolLabels && !poolLabels.equals(current.poolLabels)) {
+                changed.addAll(symmetricDifference(poolLabels, current.poolLabels));
+            }
+        }
+
+        boolean isNamedAnyOf(@NonNull Set<String> names) {
+            return node != null && names.contains(node.getNodeName());
+        }
+
+        boolean isSameAs(@CheckForNull AppliedNode other) {
+            return other != null
+                    && node == other.node
+                    && imageType == other.imageType
+                    && released == other.released
+                    && Objects.equals(poolName, other.poolName)
+                    && Objects.equals(labelString, other.labelString);
+        }
+    }
+
+
+    @Extension
+    public static class NodeChangeTrigger extends NodeListener {
+        @Override
+        protected void onCreated(@NonNull Node node) {
+            trigger(node);
+        }
+
+        @Override
+        protected void onUpdated(@NonNull Node oldOne, @NonNull Node newOne) {
+            trigger(oldOne);
+            trigger(newOne);
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            trigger(node);
+        }
+
+        private void trigger(@NonNull Node node) {
+            for (final PoolNodeListener listener : ExtensionList.lookup(PoolNodeListener.class)) {
+                listener.onNodeChanged(node.getNodeName());
+            }
+        }
     }
 
 
@@ -0,0 +1,527 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class PoolSnapshot {
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+    private final long generation;
+    private final long configurationGeneration;
+    private final NodePool defaultPool;
+    private final Map<String, NodePool> pools;
+    private final Set<String> offlinePools;
+    private final Set<LabelAtom> globalKeepOfflineNodes;
+    private final Set<LabelAtom> keepOfflineNodes;
+    private final KeepOfflineExpressions keepOfflineExpressions;
+    private final boolean drainBeforeOffline;
+    private final boolean forcedOffline;
+    private final ReleasePolicy releasePolicy;
+    private final List<MaintenanceWindow> maintenanceWindows;
+    private final PrefixIndex<PoolAssignment> images;
+    private final ImagePatterns<PoolAssignment> masterImagePatterns;
+    private final ImagePatterns<PoolAssignment> testImagePatterns;
+    private final PrefixIndex<String> prodLabels;
+
+    private PoolSnapshot(@NonNull Builder builder) {
+        this.generation = GENERATIONS.incrementAndGet();
+        this.configurationGeneration = generation;
+        this.defaultPool = new NodePool(NodePool.DEFAULT_NAME, NodePool.DEFAULT_LABEL_PREFIX, builder.masterImages,
+                builder.testImages, builder.poolLabelAtoms, builder.keepOffline, builder.keepOfflineNodes);
+        this.pools = collectPools(defaultPool, builder.pools);
+        this.offlinePools = collectOfflinePools(pools.values());
+        this.globalKeepOfflineNodes = defaultPool.getKeepOfflineNodes();
+        this.keepOfflineNodes = collectKeepOfflineNodes(globalKeepOfflineNodes, pools.values());
+        this.keepOfflineExpressions = KeepOfflineExpressions.compile(builder.keepOfflineExpressions);
+        this.drainBeforeOffline = builder.drainBeforeOffline;
+        this.forcedOffline = false;
+        this.releasePolicy = builder.releasePolicy;
+        this.maintenanceWindows = builder.maintenanceWindows == null ? Collections.emptyList()
+                : List.copyOf(builder.maintenanceWindows);
+        this.images = indexImages(pools.values());
+        this.masterImagePatterns = compileImagePatterns(pools.values(), PoolImageLabel.MASTER);
+        this.testImagePatterns = compileImagePatterns(pools.values(), PoolImageLabel.TEST);
+        this.prodLabels = indexProdLabels(pools.values());
+    }
+
+    private PoolSnapshot(@NonNull PoolSnapshot source, @NonNull Map<String, NodePool> pools, boolean forcedOffline,
+                         @NonNull Set<LabelAtom> globalKeepOfflineNodes,
+                         @NonNull KeepOfflineExpressions keepOfflineExpressions) {
+        this.generation = GENERATIONS.incrementAndGet();
+        this.configurationGeneration = source.configurationGeneration;
+        this.defaultPool = pools.get(NodePool.DEFAULT_NAME);
+        this.pools = Collections.unmodifiableMap(pools);
+        this.offlinePools = collectOfflinePools(pools.values());
+        this.globalKeepOfflineNodes = copyOf(globalKeepOfflineNodes);
+        this.keepOfflineNodes = collectKeepOfflineNodes(this.globalKeepOfflineNodes, pools.values());
+        this.keepOfflineExpressions = keepOfflineExpressions;
+        this.drainBeforeOffline = source.drainBeforeOffline;
+        this.forcedOffline = forcedOffline;
+        this.releasePolicy = source.releasePolicy;
+        this.maintenanceWindows = source.maintenanceWindows;
+        this.images = source.images;
+        this.masterImagePatterns = source.masterImagePatterns;
+        this.testImagePatterns = source.testImagePatterns;
+        this.prodLabels = source.prodLabels;
+    }
+
+    @NonNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getConfigurationGeneration() {
+        return configurationGeneration;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getPoolLabelAtoms() {
+        return defaultPool.getPoolLabelAtoms();
+    }
+
+    public boolean isKeepOffline() {
+        return defaultPool.isKeepOffline();
+    }
+
+    public boolean isKeepOffline(@CheckForNull String poolName) {
+        return poolName != null && offlinePools.contains(poolName);
+    }
+
+    @NonNull
+    public Set<String> getOfflinePools() {
+        return offlinePools;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getKeepOfflineNodes() {
+        return keepOfflineNodes;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getGlobalKeepOfflineNodes() {
+        return globalKeepOfflineNodes;
+    }
+
+    @NonNull
+    public Set<LabelAtom> getPoolKeepOfflineNodes(@CheckForNull String poolName) {
+        final NodePool pool = getNamedPool(poolName);
+        return pool == null ? Collections.emptySet() : pool.getKeepOfflineNodes();
+    }
+
+    @NonNull
+    public KeepOfflineExpressions getKeepOfflineExpressions() {
+        return keepOfflineExpressions;
+    }
+
+    @NonNull
+    public KeepOfflineExpressions getPoolKeepOfflineExpressions(@CheckForNull String poolName) {
+        final NodePool pool = getNamedPool(poolName);
+        return pool == null ? KeepOfflineExpressions.empty() : pool.getKeepOfflineExpressions();
+    }
+
+    public boolean matchesKeepOfflineExpressions(@CheckForNull Node node, @CheckForNull String poolName) {
+        return keepOfflineExpressions.matches(node) || getPoolKeepOfflineExpressions(poolName).matches(node);
+    }
+
+    public boolean isDrainBeforeOffline() {
+        return drainBeforeOffline;
+    }
+
+    public boolean isForcedOffline() {
+        return forcedOffline;
+    }
+
+    @NonNull
+    public ReleasePolicy getReleasePolicy() {
+        return releasePolicy;
+    }
+
+    @NonNull
+    public List<MaintenanceWindow> getMaintenanceWindows() {
+        return maintenanceWindows;
+    }
+
+    @NonNull
+    public NodePool getDefaultPool() {
+        return defaultPool;
+    }
+
+    @NonNull
+    public Collection<NodePool> getPools() {
+        return pools.values();
+    }
+
+    @CheckForNull
+    public NodePool getPool(@CheckForNull String name) {
+        return name == null ? null : pools.get(name);
+    }
+
+    @CheckForNull
+    PoolAssignment findImage(@CheckForNull CharSequence nodeName) {
+        final PoolAssignment image = images.find(nodeName);
+        if (image != null && image.getImageType() == PoolImageLabel.MASTER) {
+            return image;
+        }
+        final PoolAssignment master = masterImagePatterns.find(nodeName);
+        if (master != null) {
+            return master;
+        }
+        return image == null ? testImagePatterns.find(nodeName) : image;
+    }
+
+    @CheckForNull
+    String findProdPool(@NonNull Collection<LabelAtom> labels) {
+        for (final LabelAtom label : labels) {
+            final String poolName = prodLabels.find(label.getExpression());
+            if (poolName != null) {
+                return poolName;
+            }
+        }
+        return null;
+    }
+
+    boolean hasSameOfflineState(@CheckForNull PoolSnapshot other) {
+        if (!hasSamePoolState(other) || !globalKeepOfflineNodes.equals(other.globalKeepOfflineNodes)) {
+            return false;
+        }
+        for (final String poolName : poolNames(other)) {
+            if (!getPoolKeepOfflineNodes(poolName).equals(other.getPoolKeepOfflineNodes(poolName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasSamePoolState(@CheckForNull PoolSnapshot other) {
+        return hasSameOfflinePools(other) && keepOfflineExpressions.hasSameExpressions(other.keepOfflineExpressions);
+    }
+
+    boolean hasSameOfflinePools(@CheckForNull PoolSnapshot other) {
+        return other != null
+                && forcedOffline == other.forcedOffline
+                && offlinePools.equals(other.offlinePools)
+                && hasSamePoolKeepOfflineExpressions(other);
+    }
+
+    boolean hasSameKeepOfflineExpressions(@NonNull PoolSnapshot other) {
+        return keepOfflineExpressions.hasSameExpressions(other.keepOfflineExpressions)
+                && hasSamePoolKeepOfflineExpressions(other);
+    }
+
+    @NonNull
+    Set<LabelAtom> changedKeepOfflineNodes(@CheckForNull PoolSnapshot previous) {
+        if (previous == null) {
+            return keepOfflineNodes;
+        }
+
+        final Set<LabelAtom> result = new HashSet<>();
+        addChanged(previous.globalKeepOfflineNodes, globalKeepOfflineNodes, result);
+        for (final String poolName : poolNames(previous)) {
+            addChanged(previous.getPoolKeepOfflineNodes(poolName), getPoolKeepOfflineNodes(poolName), result);
+        }
+        return result;
+    }
+
+    @NonNull
+    PoolSnapshot withKeepOffline(boolean keepAllOffline, @NonNull Set<LabelAtom> globalKeepOfflineNodes) {
+        final Map<String, NodePool> overlay = new LinkedHashMap<>();
+        for (final NodePool pool : pools.values()) {
+            overlay.put(pool.getName(), pool.withKeepOffline(keepAllOffline || pool.isKeepOffline()));
+        }
+        return new PoolSnapshot(this, overlay, keepAllOffline, globalKeepOfflineNodes, keepOfflineExpressions);
+    }
+
+    @NonNull
+    PoolSnapshot withDefaultKeepOfflineNodes(@CheckForNull Set<LabelAtom> keepOfflineNodes) {
+        final NodePool updatedDefault = defaultPool.withKeepOfflineNodes(keepOfflineNodes);
+        final Map<String, NodePool> updated = new LinkedHashMap<>(pools);
+        updated.put(NodePool.DEFAULT_NAME, updatedDefault);
+        return new PoolSnapshot(this, updated, forcedOffline, updatedDefault.getKeepOfflineNodes(),
+                keepOfflineExpressions);
+    }
+
+    @NonNull
+    PoolSnapshot withKeepOfflineExpressions(@CheckForNull Collection<Label> keepOfflineExpressions) {
+        return new PoolSnapshot(this, new LinkedHashMap<>(pools), forcedOffline, globalKeepOfflineNodes,
+                KeepOfflineExpressions.compile(keepOfflineExpressions));
+    }
+
+    @CheckForNull
+    private NodePool getNamedPool(@CheckForNull String poolName) {
+        return poolName == null || NodePool.DEFAULT_NAME.equals(poolName) ? null : pools.get(poolName);
+    }
+
+    private boolean hasSamePoolKeepOfflineExpressions(@NonNull PoolSnapshot other) {
+        for (final String poolName : poolNames(other)) {
+            if (!getPoolKeepOfflineExpressions(poolName)
+                    .hasSameExpressions(other.getPoolKeepOfflineExpressions(poolName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    private Set<String> poolNames(@NonNull PoolSnapshot other) {
+        final Set<String> result = new HashSet<>(pools.keySet());
+        result.addAll(other.pools.keySet());
+        return result;
+    }
+
+    private static void addChanged(@NonNull Set<LabelAtom> previous, @NonNull Set<LabelAtom> current,
+                                   @NonNull Set<LabelAtom> result) {
+        if (previous.equals(current)) {
+            return;
+        }
+        for (final LabelAtom label : previous) {
+            if (!current.contains(label)) {
+                result.add(label);
+            }
+        }
+        for (final LabelAtom label : current) {
+            if (!previous.contains(label)) {
+                result.add(label);
+            }
+        }
+    }
+
+    @NonNull
+    private static Map<String, NodePool> collectPools(@NonNull NodePool defaultPool,
+                                                      @CheckForNull List<NodePool> namedPools) {
+        final Map<String, NodePool> result = new LinkedHashMap<>();
+        result.put(defaultPool.getName(), defaultPool);
+        if (namedPools != null) {
+            for (final NodePool pool : namedPools) {
+                result.putIfAbsent(pool.getName(), pool);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @NonNull
+    private static Set<String> collectOfflinePools(@NonNull Collection<NodePool> pools) {
+        final Set<String> result = new HashSet<>();
+        for (final NodePool pool : pools) {
+            if (pool.isKeepOffline()) {
+                result.add(pool.getName());
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @NonNull
+    private static Set<LabelAtom> collectKeepOfflineNodes(@NonNull Set<LabelAtom> globalKeepOfflineNodes,
+                                                          @NonNull Collection<NodePool> pools) {
+        OverlaySet<LabelAtom> result = OverlaySet.of(globalKeepOfflineNodes);
+        for (final NodePool pool : pools) {
+            if (!NodePool.DEFAULT_NAME.equals(pool.getName()) && !pool.getKeepOfflineNodes().isEmpty()) {
+                result = result.union(pool.getKeepOfflineNodes());
+            }
+        }
+        return copyOf(result);
+    }
+
+    @NonNull
+    private static PrefixIndex<PoolAssignment> indexImages(@NonNull Collection<NodePool> pools) {
+        final Map<String, List<PoolAssignment>> byPrefix = new LinkedHashMap<>();
+        for (final NodePool pool : pools) {
+            addImages(byPrefix, pool.getMasterImageNames(), new PoolAssignment(pool.getName(), PoolImageLabel.MASTER));
+            addImages(byPrefix, pool.getTestImageNames(), new PoolAssignment(pool.getName(), PoolImageLabel.TEST));
+        }
+
+        final Map<String, PoolAssignment> resolved = new LinkedHashMap<>();
+        byPrefix.forEach((prefix, assignments) -> {
+            final PoolAssignment first = assignments.get(0);
+            resolved.put(prefix, hasMasterPrefixOf(byPrefix, prefix, first.getPoolName())
+                    ? new PoolAssignment(first.getPoolName(), PoolImageLabel.MASTER)
+                    : first);
+        });
+        return PrefixIndex.compile(resolved);
+    }
+
+    @NonNull
+    private static ImagePatterns<PoolAssignment> compileImagePatterns(@NonNull Collection<NodePool> pools,
+                                                                      @NonNull PoolImageLabel imageType) {
+        final List<Map.Entry<String, PoolAssignment>> entries = new ArrayList<>();
+        for (final NodePool pool : pools) {
+            final PoolAssignment assignment = new PoolAssignment(pool.getName(), imageType);
+            final List<String> patterns = imageType == PoolImageLabel.MASTER
+                    ? pool.getMasterImagePatterns()
+                    : pool.getTestImagePatterns();
+            patterns.forEach(pattern -> entries.add(Map.entry(pattern, assignment)));
+        }
+        return entries.isEmpty() ? ImagePatterns.empty() : ImagePatterns.compile(entries);
+    }
+
+    private static void addImages(@NonNull Map<String, List<PoolAssignment>> byPrefix, @NonNull List<String> prefixes,
+                                  @NonNull PoolAssignment assignment) {
+        for (final String prefix : prefixes) {
+            if (prefix != null) {
+                byPrefix.computeIfAbsent(fold(prefix), k -> new ArrayList<>()).add(assignment);
+            }
+        }
+    }
+
+    private static boolean hasMasterPrefixOf(@NonNull Map<String, List<PoolAssignment>> byPrefix,
+                                             @NonNull String prefix, @NonNull String poolName) {
+        for (final Map.Entry<String, List<PoolAssignment>> entry : byPrefix.entrySet()) {
+            if (!prefix.startsWith(entry.getKey())) {
+                continue;
+            }
+            for (final PoolAssignment assignment : entry.getValue()) {
+                if (assignment.getImageType() == PoolImageLabel.MASTER && assignment.getPoolName().equals(poolName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @NonNull
+    private static PrefixIndex<String> indexProdLabels(@NonNull Collection<NodePool> pools) {
+        final Map<String, String> byPrefix = new LinkedHashMap<>();
+        for (final NodePool pool : pools) {
+            byPrefix.putIfAbsent(fold(pool.getLabelPrefix()), pool.getName());
+        }
+        return PrefixIndex.compile(byPrefix);
+    }
+
+    @NonNull
+    private static String fold(@NonNull String str) {
+        final StringBuilder result = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); ++i) {
+            result.append(PrefixIndex.fold(str.charAt(i)));
+        }
+        return result.toString();
+    }
+
+    @NonNull
+    private static Set<LabelAtom> copyOf(@CheckForNull Set<LabelAtom> labelAtoms) {
+        if (labelAtoms instanceof OverlaySet && !labelAtoms.isEmpty()) {
+            return labelAtoms;
+        }
+        return labelAtoms == null || labelAtoms.isEmpty() ? Collections.emptySet() : Set.copyOf(labelAtoms);
+    }
+
+
+    public static final class Builder {
+        private Collection<String> masterImages;
+        private Collection<String> testImages;
+        private Set<LabelAtom> poolLabelAtoms;
+        private boolean keepOffline;
+        private Set<LabelAtom> keepOfflineNodes;
+        private boolean drainBeforeOffline;
+        private ReleasePolicy releasePolicy = ReleasePolicy.IMMEDIATE;
+        private List<MaintenanceWindow> maintenanceWindows;
+        private List<NodePool> pools;
+        private Collection<Label> keepOfflineExpressions;
+
+        private Builder() {
+        }
+
+        @NonNull
+        public Builder masterImages(@CheckForNull Collection<String> masterImages) {
+            this.masterImages = masterImages;
+            return this;
+        }
+
+        @NonNull
+        public Builder testImages(@CheckForNull Collection<String> testImages) {
+            this.testImages = testImages;
+            return this;
+        }
+
+        @NonNull
+        public Builder poolLabelAtoms(@CheckForNull Set<LabelAtom> poolLabelAtoms) {
+            this.poolLabelAtoms = poolLabelAtoms;
+            return this;
+        }
+
+        @NonNull
+        public Builder keepOffline(boolean keepOffline) {
+            this.keepOffline = keepOffline;
+            return this;
+        }
+
+        @NonNull
+        public Builder keepOfflineNodes(@CheckForNull Set<LabelAtom> keepOfflineNodes) {
+            this.keepOfflineNodes = keepOfflineNodes;
+            return this;
+        }
+
+        @NonNull
+        public Builder drainBeforeOffline(boolean drainBeforeOffline) {
+            this.drainBeforeOffline = drainBeforeOffline;
+            return this;
+        }
+
+        @NonNull
+        public Builder releasePolicy(@NonNull ReleasePolicy releasePolicy) {
+            this.releasePolicy = releasePolicy;
+            return this;
+        }
+
+        @NonNull
+        public Builder maintenanceWindows(@CheckForNull List<MaintenanceWindow> maintenanceWindows) {
+            this.maintenanceWindows = maintenanceWindows;
+            return this;
+        }
+
+        @NonNull
+        public Builder pools(@CheckForNull List<NodePool> pools) {
+            this.pools = pools;
+            return this;
+        }
+
+        @NonNull
+        public Builder keepOfflineExpressions(@CheckForNull Collection<Label> keepOfflineExpressions) {
+            this.keepOfflineExpressions = keepOfflineExpressions;
+            return this;
+        }
+
+        @NonNull
+        public PoolSnapshot build() {
+            return new PoolSnapshot(this);
+        }
+    }
+}
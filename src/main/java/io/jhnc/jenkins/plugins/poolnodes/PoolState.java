@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import hudson.slaves.OfflineCause;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+public final class PoolState {
+    private static final int FLUSH_INTERVAL = 500;
+    private static final String UNCLASSIFIED = "NONE";
+    private final PoolSnapshot snapshot;
+    private final NodeNames nodeNames;
+    private final NodeLabelIndex labelIndex;
+    private final ElasticRelease elastic;
+    private final NodeDrainer drainer;
+    private final Set<LabelAtom> unindexed;
+
+    PoolState(@CheckForNull PoolSnapshot snapshot, @NonNull NodeNames nodeNames, @NonNull NodeLabelIndex labelIndex,
+              @NonNull ElasticRelease elastic, @NonNull NodeDrainer drainer) {
+        this.snapshot = snapshot;
+        this.nodeNames = nodeNames;
+        this.labelIndex = labelIndex;
+        this.elastic = elastic;
+        this.drainer = drainer;
+        this.unindexed = snapshot == null
+                ? Collections.emptySet()
+                : labelIndex.unindexed(snapshot.getKeepOfflineNodes());
+    }
+
+    public long getGeneration() {
+        return snapshot == null ? 0 : snapshot.getGeneration();
+    }
+
+    @CheckForNull
+    public PoolAssignment getAssignment(@CheckForNull Node node) {
+        return nodeNames.getAssignment(node, snapshot);
+    }
+
+    @NonNull
+    public List<String> getKeepOfflineMatches(@CheckForNull Node node) {
+        if (node == null || snapshot == null) {
+            return Collections.emptyList();
+        }
+
+        final PoolAssignment assignment = getAssignment(node);
+        final String poolName = assignment == null ? null : assignment.getPoolName();
+        final Set<LabelAtom> poolNodes = snapshot.getPoolKeepOfflineNodes(poolName);
+        final Set<String> atoms = new TreeSet<>();
+        final Set<LabelAtom> indexed = labelIndex.getIndexedLabels(node);
+        collectKeepOfflineMatches(indexed == null ? node.getAssignedLabels() : indexed, poolNodes, atoms);
+        if (indexed != null && !unindexed.isEmpty()) {
+            collectKeepOfflineMatches(node.getAssignedLabels(), poolNodes, atoms);
+        }
+        final List<String> result = new ArrayList<>(atoms);
+        result.addAll(snapshot.getKeepOfflineExpressions().matching(node));
+        result.addAll(snapshot.getPoolKeepOfflineExpressions(poolName).matching(node));
+        return result;
+    }
+
+    public boolean isReleased(@NonNull Computer computer) {
+        return snapshot != null && !snapshot.isForcedOffline() && elastic.isReleased(computer.getName());
+    }
+
+    public boolean isDraining(@NonNull Computer computer) {
+        return drainer.isDraining(computer.getName());
+    }
+
+    @NonNull
+    public static State getState(@NonNull Computer computer) {
+        final OfflineStateEngine.Reason reason = OfflineStateEngine.Reason.of(computer.getOfflineCause());
+
+        if (reason == OfflineStateEngine.Reason.NODE) {
+            return State.NODE_OFFLINE;
+        } else if (reason == OfflineStateEngine.Reason.POOL) {
+            return State.POOL_OFFLINE;
+        }
+        return computer.isOffline() ? State.OFFLINE : State.ONLINE;
+    }
+
+    public void write(@NonNull Collection<Computer> computers, @NonNull Filter filter, @NonNull Writer out)
+            throws IOException {
+        out.write("{\"generation\":");
+        out.write(Long.toString(getGeneration()));
+        out.write(",\"nodes\":[");
+
+        int written = 0;
+        for (final Computer computer : computers) {
+            final Node node = computer.getNode();
+            if (node == null) {
+                continue;
+            }
+
+            final PoolAssignment assignment = getAssignment(node);
+            final State state = getState(computer);
+            if (!filter.accepts(assignment, state)) {
+                continue;
+            }
+
+            if (written > 0) {
+                out.write(',');
+            }
+            writeNode(out, computer, assignment, state, getKeepOfflineMatches(node));
+            if (++written % FLUSH_INTERVAL == 0) {
+                out.flush();
+            }
+        }
+        out.write("]}");
+        out.flush();
+    }
+
+    private void writeNode(@NonNull Writer out, @NonNull Computer computer, @CheckForNull PoolAssignment assignment,
+                           @NonNull State state, @NonNull List<String> keepOffline) throws IOException {
+        final OfflineCause cause = computer.getOfflineCause();
+
+        out.write("{\"name\":");
+        writeString(out, computer.getName());
+        out.write(",\"type\":");
+        writeString(out, assignment == null ? null : assignment.getImageType().name());
+        out.write(",\"pool\":");
+        writeString(out, assignment == null ? null : assignment.getPoolName());
+        out.write(",\"state\":");
+        writeString(out, state.name());
+        out.write(",\"offlineCause\":");
+        writeString(out, cause == null ? null : cause.getClass().getSimpleName());
+        out.write(",\"released\":");
+        out.write(Boolean.toString(isReleased(computer)));
+        out.write(",\"draining\":");
+        out.write(Boolean.toString(isDraining(computer)));
+        out.write(",\"keepOffline\":[");
+        for (int i = 0; i < keepOffline.size(); ++i) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeString(out, keepOffline.get(i));
+        }
+        out.write("]}");
+    }
+
+    private void collectKeepOfflineMatches(@NonNull Collection<LabelAtom> labels, @NonNull Set<LabelAtom> poolNodes,
+                                           @NonNull Set<String> atoms) {
+        for (final LabelAtom label : labels) {
+            if (snapshot.getGlobalKeepOfflineNodes().contains(label) || poolNodes.contains(label)) {
+                atoms.add(label.getName());
+            }
+        }
+    }
+
+    static void writeString(@NonNull Writer out, @CheckForNull String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+
+    public enum State {
+        ONLINE,
+        OFFLINE,
+        POOL_OFFLINE,
+        NODE_OFFLINE
+    }
+
+
+    public static final class Filter {
+        static final Filter ALL = new Filter(null, null);
+        private final Set<String> types;
+        private final Set<State> states;
+
+        private Filter(@CheckForNull Set<String> types, @CheckForNull Set<State> states) {
+            this.types = types;
+            this.states = states;
+        }
+
+        @NonNull
+        public static Filter parse(@CheckForNull String types, @CheckForNull String states) {
+            return new Filter(parseValues(types, Filter::parseType), parseValues(states, State::valueOf));
+        }
+
+        boolean accepts(@CheckForNull PoolAssignment assignment, @NonNull State state) {
+            final String type = assignment == null ? UNCLASSIFIED : assignment.getImageType().name();
+            return (types == null || types.contains(type)) && (states == null || states.contains(state));
+        }
+
+        @NonNull
+        private static String parseType(@NonNull String type) {
+            return UNCLASSIFIED.equals(type) ? type : PoolImageLabel.valueOf(type).name();
+        }
+
+        @CheckForNull
+        private static <T> Set<T> parseValues(@CheckForNull String values, @NonNull Function<String, T> parser) {
+            if (values == null || values.isBlank()) {
+                return null;
+            }
+
+            final Set<T> result = new HashSet<>();
+            for (final String value : values.split(",")) {
+                final String trimmed = value.trim();
+                if (!trimmed.isEmpty()) {
+                    result.add(parser.apply(trimmed.toUpperCase(Locale.ROOT)));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public final class PrefixIndex<T> {
+    private static final PrefixIndex<?> EMPTY = new PrefixIndex<>(new TrieNode<>());
+    private final TrieNode<T> root;
+
+    private PrefixIndex(@NonNull TrieNode<T> root) {
+        this.root = root;
+    }
+
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <T> PrefixIndex<T> empty() {
+        return (PrefixIndex<T>) EMPTY;
+    }
+
+    @NonNull
+    public static <T> PrefixIndex<T> compile(@CheckForNull Map<String, T> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return empty();
+        }
+
+        final TrieNode<T> root = new TrieNode<>();
+        entries.forEach((prefix, value) -> {
+            if (prefix != null && value != null) {
+                root.insert(prefix, value);
+            }
+        });
+        return new PrefixIndex<>(root);
+    }
+
+    public boolean isEmpty() {
+        return root.value == null && root.keys.length == 0;
+    }
+
+    @CheckForNull
+    public T find(@CheckForNull CharSequence str) {
+        if (str == null) {
+            return null;
+        }
+
+        TrieNode<T> current = root;
+        T found = current.value;
+        for (int i = 0; i < str.length(); ++i) {
+            current = current.child(fold(str.charAt(i)));
+            if (current == null) {
+                break;
+            }
+            if (current.value != null) {
+                found = current.value;
+            }
+        }
+        return found;
+    }
+
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+
+    private static final class TrieNode<T> {
+        private static final char[] NO_KEYS = new char[0];
+        private char[] keys = NO_KEYS;
+        private TrieNode<?>[] children = new TrieNode<?>[0];
+        private T value;
+
+        void insert(@NonNull String prefix, @NonNull T value) {
+            TrieNode<T> current = this;
+            for (int i = 0; i < prefix.length(); ++i) {
+                current = current.getOrAddChild(fold(prefix.charAt(i)));
+            }
+            if (current.value == null) {
+                current.value = value;
+            }
+        }
+
+        @CheckForNull
+        @SuppressWarnings("unchecked")
+        TrieNode<T> child(char key) {
+            final int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : (TrieNode<T>) children[index];
+        }
+
+        @NonNull
+        private TrieNode<T> getOrAddChild(char key) {
+            final TrieNode<T> existing = child(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int insertAt = -(Arrays.binarySearch(keys, key) + 1);
+            final TrieNode<T> child = new TrieNode<>();
+            final char[] newKeys = new char[keys.length + 1];
+            final TrieNode<?>[] newChildren = new TrieNode<?>[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
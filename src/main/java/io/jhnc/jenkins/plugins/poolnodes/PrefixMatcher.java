@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class PrefixMatcher {
+    private static final PrefixMatcher EMPTY = new PrefixMatcher(PrefixIndex.empty());
+    private final PrefixIndex<Boolean> index;
+
+    private PrefixMatcher(@NonNull PrefixIndex<Boolean> index) {
+        this.index = index;
+    }
+
+    @NonNull
+    public static PrefixMatcher compile(@CheckForNull Collection<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Map<String, Boolean> entries = new LinkedHashMap<>();
+        for (final String prefix : prefixes) {
+            if (prefix != null) {
+                entries.put(prefix, Boolean.TRUE);
+            }
+        }
+        return new PrefixMatcher(PrefixIndex.compile(entries));
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public boolean matches(@CheckForNull CharSequence str) {
+        return index.find(str) != null;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class ReconciliationExecutor {
+    private static final Logger LOGGER = Logger.getLogger(ReconciliationExecutor.class.getName());
+    private final ExecutorService[] lanes;
+
+    ReconciliationExecutor(int parallelism) {
+        this.lanes = new ExecutorService[Math.max(0, parallelism)];
+        for (int i = 0; i < lanes.length; ++i) {
+            lanes[i] = createLane(i);
+        }
+    }
+
+    public boolean isAsynchronous() {
+        return lanes.length > 0;
+    }
+
+    @NonNull
+    ReconciliationProgress execute(@NonNull Map<Computer, Runnable> tasks) {
+        final ReconciliationProgress progress = new ReconciliationProgress(tasks.size());
+        final long start = System.nanoTime();
+        progress.getCompletion().thenRun(() -> LOGGER.log(Level.FINE, "Reconciled {0} computers in {1} ms",
+                new Object[]{progress.getTotal(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)}));
+
+        for (final Map.Entry<Computer, Runnable> task : tasks.entrySet()) {
+            if (isAsynchronous()) {
+                laneOf(task.getKey()).execute(() -> run(task.getKey(), task.getValue(), progress));
+            } else {
+                run(task.getKey(), task.getValue(), progress);
+            }
+        }
+        return progress;
+    }
+
+    void shutdown() {
+        for (final ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    @NonNull
+    private ExecutorService laneOf(@NonNull Computer computer) {
+        return lanes[Math.floorMod(System.identityHashCode(computer), lanes.length)];
+    }
+
+    private static void run(@NonNull Computer computer, @NonNull Runnable task, @NonNull ReconciliationProgress progress) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to reconcile " + computer.getName());
+        } finally {
+            progress.markCompleted();
+        }
+    }
+
+    @NonNull
+    private static ExecutorService createLane(int index) {
+        final ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "PoolNodeReconciliation-" + index));
+        lane.allowCoreThreadTimeOut(true);
+        return lane;
+    }
+}
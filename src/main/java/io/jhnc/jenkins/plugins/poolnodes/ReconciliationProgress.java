@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ReconciliationProgress {
+    private final int total;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    ReconciliationProgress(int total) {
+        this.total = total;
+        if (total == 0) {
+            completion.complete(null);
+        }
+    }
+
+    @NonNull
+    static ReconciliationProgress done() {
+        return new ReconciliationProgress(0);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    @NonNull
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    void markCompleted() {
+        if (completed.incrementAndGet() == total) {
+            completion.complete(null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getCompleted() + "/" + total;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class ReconciliationScheduler {
+    private static final Logger LOGGER = Logger.getLogger(ReconciliationScheduler.class.getName());
+    private final long windowMillis;
+    private final Function<Batch, ReconciliationProgress> pass;
+    private ScheduledExecutorService timer;
+    private boolean all;
+    private Set<String> nodeNames = new HashSet<>();
+    private boolean scheduled;
+    private boolean terminated;
+
+    ReconciliationScheduler(long windowMillis, @NonNull Function<Batch, ReconciliationProgress> pass) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.pass = pass;
+    }
+
+    public boolean isDebounced() {
+        return windowMillis > 0;
+    }
+
+    void requestAll() {
+        request(null);
+    }
+
+    void request(@CheckForNull String nodeName) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            if (nodeName == null) {
+                all = true;
+            } else {
+                nodeNames.add(nodeName);
+            }
+
+            if (isDebounced()) {
+                if (!scheduled) {
+                    scheduled = true;
+                    getTimer().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        flush();
+    }
+
+    synchronized boolean isPending() {
+        return scheduled;
+    }
+
+    synchronized void shutdown() {
+        terminated = true;
+        if (timer != null) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+
+    private void flush() {
+        final Batch batch;
+
+        synchronized (this) {
+            batch = new Batch(all, nodeNames);
+            all = false;
+            nodeNames = new HashSet<>();
+            scheduled = false;
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            pass.apply(batch).getCompletion().join();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Reconciliation failed", e instanceof CompletionException ? e.getCause() : e);
+        }
+    }
+
+    @NonNull
+    private synchronized ScheduledExecutorService getTimer() {
+        if (timer == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                    new NamingThreadFactory(new DaemonThreadFactory(), "PoolNodeReconciliationScheduler"));
+            executor.setKeepAliveTime(60L, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            timer = executor;
+        }
+        return timer;
+    }
+
+
+    static final class Batch {
+        private final boolean all;
+        private final Set<String> nodeNames;
+
+        Batch(boolean all, @NonNull Set<String> nodeNames) {
+            this.all = all;
+            this.nodeNames = Collections.unmodifiableSet(nodeNames);
+        }
+
+        boolean isAll() {
+            return all;
+        }
+
+        @NonNull
+        Set<String> getNodeNames() {
+            return nodeNames;
+        }
+
+        boolean isEmpty() {
+            return !all && nodeNames.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+public final class ReleasePolicy {
+    public static final ReleasePolicy IMMEDIATE = new ReleasePolicy(0, 0, 0);
+    private final int waveSize;
+    private final int waveIntervalSeconds;
+    private final int maxQueueLength;
+    private final boolean elastic;
+    private final int elasticTargetWaitSeconds;
+    private final int elasticCooldownSeconds;
+    private final int elasticPrewarmMinutes;
+
+    public ReleasePolicy(int waveSize, int waveIntervalSeconds, int maxQueueLength) {
+        this(waveSize, waveIntervalSeconds, maxQueueLength, false, 0, 0);
+    }
+
+    public ReleasePolicy(int waveSize, int waveIntervalSeconds, int maxQueueLength, boolean elastic,
+                         int elasticTargetWaitSeconds, int elasticCooldownSeconds) {
+        this(waveSize, waveIntervalSeconds, maxQueueLength, elastic, elasticTargetWaitSeconds, elasticCooldownSeconds,
+                0);
+    }
+
+    public ReleasePolicy(int waveSize, int waveIntervalSeconds, int maxQueueLength, boolean elastic,
+                         int elasticTargetWaitSeconds, int elasticCooldownSeconds, int elasticPrewarmMinutes) {
+        this.waveSize = Math.max(0, waveSize);
+        this.waveIntervalSeconds = Math.max(0, waveIntervalSeconds);
+        this.maxQueueLength = Math.max(0, maxQueueLength);
+        this.elastic = elastic;
+        this.elasticTargetWaitSeconds = Math.max(0, elasticTargetWaitSeconds);
+        this.elasticCooldownSeconds = Math.max(0, elasticCooldownSeconds);
+        this.elasticPrewarmMinutes = Math.max(0, elasticPrewarmMinutes);
+    }
+
+    public boolean isStaged() {
+        return waveSize > 0;
+    }
+
+    public int getWaveSize() {
+        return waveSize;
+    }
+
+    public int getWaveIntervalSeconds() {
+        return waveIntervalSeconds;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public boolean isQueueGated() {
+        return maxQueueLength > 0;
+    }
+
+    public boolean isElastic() {
+        return elastic;
+    }
+
+    public int getElasticTargetWaitSeconds() {
+        return elasticTargetWaitSeconds;
+    }
+
+    public int getElasticCooldownSeconds() {
+        return elasticCooldownSeconds;
+    }
+
+    public boolean isPrewarming() {
+        return elastic && elasticPrewarmMinutes > 0;
+    }
+
+    public int getElasticPrewarmMinutes() {
+        return elasticPrewarmMinutes;
+    }
+}
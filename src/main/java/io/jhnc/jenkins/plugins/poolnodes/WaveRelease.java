@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class WaveRelease {
+    private static final Logger LOGGER = Logger.getLogger(WaveRelease.class.getName());
+    private final Deque<Computer> remaining;
+    private final ReleasePolicy policy;
+    private final Consumer<List<Computer>> releaser;
+    private final IntSupplier queueLength;
+    private final ScheduledExecutorService timer;
+    private ScheduledFuture<?> next;
+    private boolean cancelled;
+
+    WaveRelease(@NonNull Collection<Computer> computers, @NonNull ReleasePolicy policy,
+                @NonNull Consumer<List<Computer>> releaser, @NonNull IntSupplier queueLength,
+                @NonNull ScheduledExecutorService timer) {
+        this.remaining = new ArrayDeque<>(computers);
+        this.policy = policy;
+        this.releaser = releaser;
+        this.queueLength = queueLength;
+        this.timer = timer;
+    }
+
+    void start() {
+        step();
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        remaining.clear();
+        if (next != null) {
+            next.cancel(false);
+        }
+    }
+
+    public synchronized int getRemaining() {
+        return remaining.size();
+    }
+
+    public synchronized boolean isDone() {
+        return cancelled || remaining.isEmpty();
+    }
+
+    private void step() {
+        final List<Computer> wave;
+
+        synchronized (this) {
+            if (isDone()) {
+                return;
+            }
+
+            if (policy.isQueueGated() && queueLength.getAsInt() > policy.getMaxQueueLength()) {
+                LOGGER.log(Level.FINE, "Holding back {0} pool agents, queue is too long", remaining.size());
+                scheduleNext();
+                return;
+            }
+
+            wave = new ArrayList<>(policy.getWaveSize());
+            while (wave.size() < policy.getWaveSize() && !remaining.isEmpty()) {
+                wave.add(remaining.poll());
+            }
+            if (!remaining.isEmpty()) {
+                scheduleNext();
+            }
+        }
+
+        LOGGER.log(Level.FINE, "Releasing {0} pool agents, {1} remaining", new Object[]{wave.size(), getRemaining()});
+        releaser.accept(wave);
+    }
+
+    private void scheduleNext() {
+        next = timer.schedule(this::step, policy.getWaveIntervalSeconds(), TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class DemandHistoryFileTest {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void readReturnsWrittenHistories() throws IOException {
+        final DemandHistoryFile file = new DemandHistoryFile(dir.resolve("demandHistory.txt"));
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"));
+        history.record(0L, 4);
+        history.record(DemandHistory.SLOT_MILLIS, 0);
+        file.write(Map.of("linux", history, "windows", new DemandHistory()));
+
+        final Map<String, DemandHistory> read = file.read();
+
+        assertThat(file.exists()).isTrue();
+        assertThat(read.keySet()).containsExactly("linux", "windows");
+        assertThat(read.get("linux").getSlots()).isEqualTo(history.getSlots());
+    }
+
+    @Test
+    void readIsSafeToMissingFile() throws IOException {
+        final DemandHistoryFile file = new DemandHistoryFile(dir.resolve("demandHistory.txt"));
+
+        assertThat(file.exists()).isFalse();
+        assertThat(file.read()).isEmpty();
+    }
+
+    @Test
+    void readIgnoresMalformedLines() throws IOException {
+        final Path path = dir.resolve("demandHistory.txt");
+        final DemandHistoryFile file = new DemandHistoryFile(path);
+        file.write(Map.of("linux", new DemandHistory()));
+        Files.writeString(path, "short 1.0 2.0\n" + "nan" + " x".repeat(DemandHistory.SLOTS) + "\n\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(file.read().keySet()).containsExactly("linux");
+    }
+}
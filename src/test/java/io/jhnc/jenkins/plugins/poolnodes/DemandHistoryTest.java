@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class DemandHistoryTest {
+    private static final long SLOT = DemandHistory.SLOT_MILLIS;
+    private static final long WEEK = TimeUnit.DAYS.toMillis(7);
+
+    @Test
+    void coversOneWeek() {
+        assertThat(DemandHistory.SLOTS).isEqualTo(336);
+    }
+
+    @Test
+    void recordFoldsPeakIntoSlotOnRollover() {
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"));
+        history.record(0L, 3);
+        history.record(1_000L, 5);
+        history.record(2_000L, 1);
+        assertThat(history.getExpected(0L)).isEqualTo(0f);
+
+        history.record(SLOT, 0);
+
+        assertThat(history.getExpected(0L)).isWithin(0.001f).of(1.5f);
+        assertThat(history.getExpected(WEEK)).isWithin(0.001f).of(1.5f);
+    }
+
+    @Test
+    void recordSmoothsAcrossWeeks() {
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"));
+        for (int week = 0; week < 20; ++week) {
+            history.record(week * WEEK, 10);
+            history.record(week * WEEK + SLOT, 0);
+        }
+
+        assertThat(history.getExpected(0L)).isWithin(0.01f).of(10f);
+        assertThat(history.getExpected(SLOT)).isEqualTo(0f);
+    }
+
+    @Test
+    void predictLooksAhead() {
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"));
+        history.record(2 * SLOT, 10);
+        history.record(3 * SLOT, 0);
+
+        assertThat(history.predict(WEEK, SLOT)).isEqualTo(0);
+        assertThat(history.predict(WEEK, 2 * SLOT)).isEqualTo(3);
+        assertThat(history.predict(WEEK + 3 * SLOT, 2 * SLOT)).isEqualTo(0);
+    }
+
+    @Test
+    void slotsFollowLocalTime() {
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("GMT+01:00"));
+        history.record(0L, 10);
+        history.record(SLOT, 0);
+
+        assertThat(history.getExpected(0L)).isWithin(0.001f).of(3f);
+        assertThat(history.getExpected(WEEK - TimeUnit.HOURS.toMillis(1))).isEqualTo(0f);
+    }
+
+    @Test
+    void clearChangedReportsRollover() {
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"));
+        history.record(0L, 3);
+        assertThat(history.clearChanged()).isFalse();
+
+        history.record(SLOT, 0);
+
+        assertThat(history.clearChanged()).isTrue();
+        assertThat(history.clearChanged()).isFalse();
+    }
+
+    @Test
+    void restoresSlots() {
+        final float[] slots = new float[DemandHistory.SLOTS];
+        slots[1] = 2.5f;
+
+        final DemandHistory history = new DemandHistory(TimeZone.getTimeZone("UTC"), slots);
+
+        assertThat(history.getExpected(SLOT)).isEqualTo(2.5f);
+        assertThat(history.getSlots()).isEqualTo(slots);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ElasticReleaseTest {
+    private static final ReleasePolicy ELASTIC = new ReleasePolicy(0, 0, 0, true, 60, 300);
+
+    @Test
+    void sampleCountsItemsPerPool() {
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", true), TestHelper.createPool("windows", true)))
+                .build();
+
+        final Map<String, ElasticRelease.Demand> demand = ElasticRelease.sample(List.of(
+                createItem(new LabelAtom("linux-label"), 1_000L),
+                createItem(new LabelExpression.And(new LabelAtom("linux-label"), new LabelAtom("gpu")), 500L),
+                createItem(new LabelAtom("windows-label"), 2_000L),
+                createItem(new LabelAtom("other"), 0L),
+                createItem(null, 0L)), snapshot);
+
+        assertThat(demand.keySet()).containsExactly("linux", "windows");
+        assertThat(demand.get("linux").getWaiting()).isEqualTo(2);
+        assertThat(demand.get("linux").getOldestWait(10_500L)).isEqualTo(10_000L);
+        assertThat(demand.get("windows").getWaiting()).isEqualTo(1);
+    }
+
+    @Test
+    void sampleIsEmptyWithoutPoolLabels() {
+        final PoolSnapshot snapshot = TestHelper.createSnapshot(true, Collections.emptySet());
+        assertThat(ElasticRelease.sample(List.of(createItem(new LabelAtom("linux"), 0L)), snapshot)).isEmpty();
+    }
+
+    @Test
+    void updateReleasesAgentsForWaitingItems() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(3);
+
+        final Set<String> changed = elastic.update(ELASTIC, Map.of("linux", computers),
+                Map.of("linux", createDemand(2, 0L)), 60_000L);
+
+        assertThat(changed).containsExactly("node-0", "node-1");
+        assertThat(elastic.isReleased("node-0")).isTrue();
+        assertThat(elastic.isReleased("node-1")).isTrue();
+        assertThat(elastic.isReleased("node-2")).isFalse();
+    }
+
+    @Test
+    void updateHoldsAgentsWhileWaitIsBelowTarget() {
+        final ElasticRelease elastic = new ElasticRelease();
+
+        final Set<String> changed = elastic.update(ELASTIC, Map.of("linux", createComputers(3)),
+                Map.of("linux", createDemand(2, 0L)), 59_999L);
+
+        assertThat(changed).isEmpty();
+        assertThat(elastic.getReleasedNodes()).isEmpty();
+    }
+
+    @Test
+    void updateIsBoundedByAvailableAgents() {
+        final ElasticRelease elastic = new ElasticRelease();
+
+        elastic.update(ELASTIC, Map.of("linux", createComputers(2)), Map.of("linux", createDemand(5, 0L)), 60_000L);
+
+        assertThat(elastic.getReleasedNodes()).containsExactly("node-0", "node-1");
+    }
+
+    @Test
+    void updateKeepsBusyAgentsReleased() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(3);
+        elastic.update(ELASTIC, Map.of("linux", computers), Map.of("linux", createDemand(2, 0L)), 60_000L);
+        when(computers.get(1).isIdle()).thenReturn(false);
+
+        final Set<String> changed = elastic.update(ELASTIC, Map.of("linux", computers), Map.of(), 1_000_000L);
+
+        assertThat(changed).containsExactly("node-0");
+        assertThat(elastic.getReleasedNodes()).containsExactly("node-1");
+    }
+
+    @Test
+    void updateParksAgentsAfterCooldown() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(3);
+        elastic.update(ELASTIC, Map.of("linux", computers), Map.of("linux", createDemand(2, 0L)), 60_000L);
+
+        assertThat(elastic.update(ELASTIC, Map.of("linux", computers), Map.of(), 359_999L)).isEmpty();
+        assertThat(elastic.update(ELASTIC, Map.of("linux", computers), Map.of(), 360_000L))
+                .containsExactly("node-0", "node-1");
+        assertThat(elastic.getReleasedNodes()).isEmpty();
+    }
+
+    @Test
+    void updateParksAgentsOfRemovedPools() {
+        final ElasticRelease elastic = new ElasticRelease();
+        elastic.update(ELASTIC, Map.of("linux", createComputers(2)), Map.of("linux", createDemand(1, 0L)), 60_000L);
+
+        assertThat(elastic.update(ELASTIC, Map.of(), Map.of(), 60_000L)).containsExactly("node-0");
+        assertThat(elastic.isEmpty()).isTrue();
+    }
+
+    @Test
+    void updateParksAllAgentsIfDisabled() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(2);
+        elastic.update(ELASTIC, Map.of("linux", computers), Map.of("linux", createDemand(2, 0L)), 60_000L);
+
+        assertThat(elastic.update(ReleasePolicy.IMMEDIATE, Map.of("linux", computers), Map.of(), 60_000L))
+                .containsExactly("node-0", "node-1");
+        assertThat(elastic.isReleased("node-0")).isFalse();
+        assertThat(elastic.isReleased(null)).isFalse();
+    }
+
+    @Test
+    void updatePrewarmsAgentsForPredictedDemand() {
+        final ReleasePolicy policy = new ReleasePolicy(0, 0, 0, true, 0, 0, 60);
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(5);
+        final long slot = DemandHistory.SLOT_MILLIS;
+        final long week = TimeUnit.DAYS.toMillis(7);
+        elastic.update(policy, Map.of("linux", computers), Map.of("linux", createDemand(10, 0L)), 0L);
+        elastic.update(policy, Map.of("linux", computers), Map.of(), slot);
+        assertThat(elastic.getReleasedNodes()).isEmpty();
+
+        elastic.update(policy, Map.of("linux", computers), Map.of(), week - slot);
+
+        assertThat(elastic.getReleasedNodes()).containsExactly("node-0", "node-1", "node-2");
+        assertThat(elastic.getHistory("linux")).isNotNull();
+    }
+
+    @Test
+    void updateIgnoresHistoryWithoutPrewarming() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(5);
+        final long slot = DemandHistory.SLOT_MILLIS;
+        final ReleasePolicy policy = new ReleasePolicy(0, 0, 0, true, 0, 0);
+        elastic.update(policy, Map.of("linux", computers), Map.of("linux", createDemand(10, 0L)), 0L);
+        elastic.update(policy, Map.of("linux", computers), Map.of(), slot);
+
+        elastic.update(policy, Map.of("linux", computers), Map.of(), TimeUnit.DAYS.toMillis(7) - slot);
+
+        assertThat(elastic.getReleasedNodes()).isEmpty();
+    }
+
+    @Test
+    void changedHistoriesIncludeCompletedSlots() {
+        final ElasticRelease elastic = new ElasticRelease();
+        final List<Computer> computers = createComputers(2);
+        elastic.update(ELASTIC, Map.of("linux", computers), Map.of("linux", createDemand(1, 0L)), 0L);
+        assertThat(elastic.getChangedHistories()).isNull();
+
+        elastic.update(ELASTIC, Map.of("linux", computers), Map.of(), DemandHistory.SLOT_MILLIS);
+
+        assertThat(elastic.getChangedHistories()).containsKey("linux");
+        assertThat(elastic.getChangedHistories()).isNull();
+    }
+
+    @Test
+    void retainHistoriesDropsRemovedPools() {
+        final ElasticRelease elastic = new ElasticRelease();
+        elastic.restoreHistories(Map.of("linux", new DemandHistory(), "windows", new DemandHistory()));
+
+        elastic.retainHistories(Set.of("linux"));
+
+        assertThat(elastic.getHistory("windows")).isNull();
+        assertThat(elastic.getChangedHistories()).containsExactly("linux", elastic.getHistory("linux"));
+        elastic.retainHistories(Set.of("linux"));
+        assertThat(elastic.getChangedHistories()).isNull();
+    }
+
+    @Test
+    void restoreHistoriesKeepsRecordedHistories() {
+        final ElasticRelease elastic = new ElasticRelease();
+        elastic.update(ELASTIC, Map.of("linux", createComputers(1)), Map.of(), 0L);
+        final DemandHistory recorded = elastic.getHistory("linux");
+
+        elastic.restoreHistories(Map.of("linux", new DemandHistory(), "windows", new DemandHistory()));
+
+        assertThat(elastic.getHistory("linux")).isSameInstanceAs(recorded);
+        assertThat(elastic.getHistory("windows")).isNotNull();
+    }
+
+    private static ElasticRelease.Demand createDemand(int waiting, long since) {
+        final ElasticRelease.Demand demand = new ElasticRelease.Demand();
+        for (int i = 0; i < waiting; ++i) {
+            demand.add(since);
+        }
+        return demand;
+    }
+
+    private static List<Computer> createComputers(int count) {
+        final Computer[] computers = new Computer[count];
+        for (int i = 0; i < count; ++i) {
+            computers[i] = mock(Computer.class);
+            when(computers[i].getName()).thenReturn("node-" + i);
+            when(computers[i].isIdle()).thenReturn(true);
+        }
+        return List.of(computers);
+    }
+
+    private static Queue.Item createItem(Label label, long inQueueSince) {
+        final Queue.Item item = mock(Queue.BuildableItem.class);
+        when(item.getAssignedLabel()).thenReturn(label);
+        when(item.getInQueueSince()).thenReturn(inQueueSince);
+        return item;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class ImagePatternsTest {
+    @Test
+    void detectsPatterns() {
+        assertThat(ImagePatterns.isPattern("win-*-master")).isTrue();
+        assertThat(ImagePatterns.isPattern("node-?")).isTrue();
+        assertThat(ImagePatterns.isPattern("re:node-\\d+")).isTrue();
+
+        assertThat(ImagePatterns.isPattern("master.pool0")).isFalse();
+        assertThat(ImagePatterns.isPattern(null)).isFalse();
+    }
+
+    @Test
+    void globMatchesWholeName() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(Map.entry("win-*-master", "a")));
+
+        assertThat(patterns.find("win-10-master")).isEqualTo("a");
+        assertThat(patterns.find("WIN-11-Master")).isEqualTo("a");
+        assertThat(patterns.find("win-10-master-0")).isNull();
+        assertThat(patterns.find("xwin-10-master")).isNull();
+    }
+
+    @Test
+    void globQuotesRegexCharacters() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(Map.entry("host.is-?", "a")));
+
+        assertThat(patterns.find("host.is-0")).isEqualTo("a");
+        assertThat(patterns.find("hostXis-0")).isNull();
+    }
+
+    @Test
+    void regexMatchesWholeName() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(Map.entry("re:win-.*-master-\\d+", "a")));
+
+        assertThat(patterns.find("win-10-master-12")).isEqualTo("a");
+        assertThat(patterns.find("win-10-master-x")).isNull();
+    }
+
+    @Test
+    void firstMatchingEntryWins() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(
+                Map.entry("re:(a)(b)c", "first"),
+                Map.entry("lin*", "second"),
+                Map.entry("linux-*", "third")));
+
+        assertThat(patterns.find("abc")).isEqualTo("first");
+        assertThat(patterns.find("linux-0")).isEqualTo("second");
+    }
+
+    @Test
+    void entriesAfterCapturingGroupsResolveCorrectly() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(
+                Map.entry("re:(a)(b)(c)", "first"),
+                Map.entry("x*", "second")));
+
+        assertThat(patterns.find("x0")).isEqualTo("second");
+    }
+
+    @Test
+    void invalidEntriesAreSkipped() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(
+                Map.entry("re:(unclosed", "invalid"),
+                Map.entry("node-*", "valid")));
+
+        assertThat(patterns.find("node-0")).isEqualTo("valid");
+        assertThat(ImagePatterns.validate("re:(unclosed")).isNotNull();
+        assertThat(ImagePatterns.validate("re:node-\\d+")).isNull();
+        assertThat(ImagePatterns.validate("master.pool0")).isNull();
+    }
+
+    @Test
+    void emptyPatternsMatchNothing() {
+        assertThat(ImagePatterns.<String>empty().isEmpty()).isTrue();
+        assertThat(ImagePatterns.<String>empty().find("abc")).isNull();
+        assertThat(ImagePatterns.compile(List.of(Map.entry("re:(", "a"))).isEmpty()).isTrue();
+        assertThat(ImagePatterns.compile(List.of(Map.entry("a*", "a"))).find(null)).isNull();
+    }
+
+    @Test
+    void rejectsBackreferencesAndNamedGroups() {
+        assertThat(ImagePatterns.validate("re:(a)\\1")).isEqualTo(Messages.ImagePatterns_backreference());
+        assertThat(ImagePatterns.validate("re:(?<x>a)\\k<x>")).isNotNull();
+        assertThat(ImagePatterns.validate("re:(?<x>a)")).isEqualTo(Messages.ImagePatterns_namedGroup());
+
+        assertThat(ImagePatterns.validate("re:\\\\1")).isNull();
+        assertThat(ImagePatterns.validate("re:(?<=a)b")).isNull();
+        assertThat(ImagePatterns.validate("re:(?<!a)b")).isNull();
+        assertThat(ImagePatterns.validate("re:\\Q\\1(?<x>\\E")).isNull();
+        assertThat(ImagePatterns.validate("a\\1(?<x>*")).isNull();
+    }
+
+    @Test
+    void validateAllChecksEveryEntry() {
+        assertThat(ImagePatterns.validateAll(List.of("node-*", "re:node-\\d+", "master.pool0"))).isNull();
+        assertThat(ImagePatterns.validateAll(List.of("node-*", "re:(a)\\1"))).isNotNull();
+        assertThat(ImagePatterns.validateAll(List.of())).isNull();
+    }
+
+    @Test
+    void backreferencesDoNotDisableOtherPatterns() {
+        final ImagePatterns<String> patterns = ImagePatterns.compile(List.of(
+                Map.entry("re:(a)\\1", "invalid"),
+                Map.entry("re:(b)x", "b"),
+                Map.entry("node-*", "node")));
+
+        assertThat(patterns.find("aa")).isNull();
+        assertThat(patterns.find("bx")).isEqualTo("b");
+        assertThat(patterns.find("node-0")).isEqualTo("node");
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class ImageTypeCacheTest {
+    private static final PoolAssignment PRODUCTION = new PoolAssignment(NodePool.DEFAULT_NAME, PoolImageLabel.PRODUCTION);
+    private static final PoolAssignment TEST = new PoolAssignment(NodePool.DEFAULT_NAME, PoolImageLabel.TEST);
+    @Test
+    void returnsCachedEntry() {
+        final ImageTypeCache cache = new ImageTypeCache(10);
+        cache.put("node-0", "vdi-pool", 3L, PRODUCTION);
+        cache.put("node-1", null, 3L, null);
+
+        assertThat(cache.get("node-0", "vdi-pool", 3L).getImageType()).isEqualTo(PoolImageLabel.PRODUCTION);
+        assertThat(cache.get("node-1", null, 3L)).isNotNull();
+        assertThat(cache.get("node-1", null, 3L).getImageType()).isNull();
+        assertThat(cache.get("node-2", null, 3L)).isNull();
+    }
+
+    @Test
+    void entryIsStaleOnLabelChange() {
+        final ImageTypeCache cache = new ImageTypeCache(10);
+        cache.put("node-0", "vdi-pool", 3L, PRODUCTION);
+        assertThat(cache.get("node-0", "unrelated", 3L)).isNull();
+        assertThat(cache.get("node-0", null, 3L)).isNull();
+    }
+
+    @Test
+    void entryIsStaleOnGenerationChange() {
+        final ImageTypeCache cache = new ImageTypeCache(10);
+        cache.put("node-0", "vdi-pool", 3L, PRODUCTION);
+        assertThat(cache.get("node-0", "vdi-pool", 4L)).isNull();
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        final ImageTypeCache cache = new ImageTypeCache(10);
+        cache.put("node-0", "vdi-pool", 3L, PRODUCTION);
+        cache.invalidate("node-0");
+        assertThat(cache.get("node-0", "vdi-pool", 3L)).isNull();
+    }
+
+    @Test
+    void sizeIsBounded() {
+        final ImageTypeCache cache = new ImageTypeCache(3);
+        for (int i = 0; i < 10; ++i) {
+            cache.put("node-" + i, null, 1L, TEST);
+            assertThat(cache.size()).isAtMost(3);
+        }
+        assertThat(cache.get("node-9", null, 1L)).isNotNull();
+    }
+
+    @Test
+    void nodeListenerInvalidatesSharedCache() {
+        final ImageTypeCache.Invalidator invalidator = new ImageTypeCache.Invalidator();
+        ImageTypeCache.INSTANCE.put("shared-node-0", null, 1L, TEST);
+        ImageTypeCache.INSTANCE.put("shared-node-1", null, 1L, TEST);
+        ImageTypeCache.INSTANCE.put("shared-node-2", null, 1L, TEST);
+
+        invalidator.onUpdated(TestHelper.create("shared-node-0"), TestHelper.create("shared-node-1"));
+        invalidator.onDeleted(TestHelper.create("shared-node-2"));
+
+        assertThat(ImageTypeCache.INSTANCE.get("shared-node-0", null, 1L)).isNull();
+        assertThat(ImageTypeCache.INSTANCE.get("shared-node-1", null, 1L)).isNull();
+        assertThat(ImageTypeCache.INSTANCE.get("shared-node-2", null, 1L)).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeepOfflineExpressionsTest {
+    private static final Label LINUX_NOT_CANARY = new LabelExpression.And(new LabelAtom("linux"),
+            new LabelExpression.Not(new LabelAtom("canary")));
+
+    @Test
+    void detectsExpressions() {
+        assertThat(KeepOfflineExpressions.isExpression("linux && !canary")).isTrue();
+        assertThat(KeepOfflineExpressions.isExpression("linux||windows")).isTrue();
+        assertThat(KeepOfflineExpressions.isExpression("!canary")).isTrue();
+        assertThat(KeepOfflineExpressions.isExpression("(linux)")).isTrue();
+
+        assertThat(KeepOfflineExpressions.isExpression("gpu-less")).isFalse();
+        assertThat(KeepOfflineExpressions.isExpression("host-1 host-2")).isFalse();
+        assertThat(KeepOfflineExpressions.isExpression(null)).isFalse();
+    }
+
+    @Test
+    void requiredLabelsListsAtomsOfExpressionsNotMatchingEmptyLabels() {
+        assertThat(KeepOfflineExpressions.requiredLabels(LINUX_NOT_CANARY))
+                .containsExactly(new LabelAtom("linux"), new LabelAtom("canary"));
+        assertThat(KeepOfflineExpressions.requiredLabels(new LabelExpression.Not(new LabelAtom("gpu")))).isNull();
+        assertThat(KeepOfflineExpressions.requiredLabels(null)).isNull();
+    }
+
+    @Test
+    void compileIsSafeToNullOrEmpty() {
+        assertThat(KeepOfflineExpressions.compile(null).isEmpty()).isTrue();
+        assertThat(KeepOfflineExpressions.compile(List.of()).isEmpty()).isTrue();
+        assertThat(KeepOfflineExpressions.empty().matches(TestHelper.create("node-0", List.of("linux")))).isFalse();
+        assertThat(KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY)).matches(null)).isFalse();
+    }
+
+    @Test
+    void matchesEvaluatesExpressions() {
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY,
+                new LabelExpression.And(new LabelAtom("windows"), new LabelAtom("gpu"))));
+
+        assertThat(expressions.matches(TestHelper.create("node-0", List.of("linux")))).isTrue();
+        assertThat(expressions.matches(TestHelper.create("node-1", List.of("linux", "canary")))).isFalse();
+        assertThat(expressions.matches(TestHelper.create("node-2", List.of("windows", "gpu")))).isTrue();
+        assertThat(expressions.matches(TestHelper.create("node-3", List.of("windows")))).isFalse();
+    }
+
+    @Test
+    void matchingListsMatchedExpressions() {
+        final Label windowsGpu = new LabelExpression.And(new LabelAtom("windows"), new LabelAtom("gpu"));
+        final Label linuxOrWindows = new LabelExpression.Or(new LabelAtom("linux"), new LabelAtom("windows"));
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY,
+                windowsGpu, linuxOrWindows));
+
+        assertThat(expressions.matching(TestHelper.create("node-0", List.of("linux"))))
+                .containsExactly(LINUX_NOT_CANARY.getExpression(), linuxOrWindows.getExpression()).inOrder();
+        assertThat(expressions.matching(TestHelper.create("node-1", List.of("macos")))).isEmpty();
+        assertThat(expressions.matching(null)).isEmpty();
+    }
+
+    @Test
+    void matchesCachesResultPerNode() {
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY));
+        final Node node = TestHelper.create("node-0", List.of("linux"));
+
+        assertThat(expressions.matches(node)).isTrue();
+        assertThat(expressions.matches(node)).isTrue();
+        verify(node, times(1)).getAssignedLabels();
+        assertThat(expressions.cachedNodes()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesReevaluatesChangedLabels() {
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY));
+        final Node node = TestHelper.create("node-0", List.of("linux"));
+        assertThat(expressions.matches(node)).isTrue();
+
+        when(node.getLabelString()).thenReturn("linux canary");
+        when(node.getAssignedLabels()).thenReturn(TestHelper.simpleParseLabel("linux canary"));
+
+        assertThat(expressions.matches(node)).isFalse();
+    }
+
+    @Test
+    void cacheIsBounded() {
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY), 2);
+        expressions.matches(TestHelper.create("node-0", List.of("linux")));
+        expressions.matches(TestHelper.create("node-1", List.of("linux")));
+        expressions.matches(TestHelper.create("node-2", List.of("linux")));
+
+        assertThat(expressions.cachedNodes()).isEqualTo(1);
+    }
+
+    @Test
+    void hasSameExpressionsComparesExpressions() {
+        final KeepOfflineExpressions expressions = KeepOfflineExpressions.compile(List.of(LINUX_NOT_CANARY));
+
+        assertThat(expressions.hasSameExpressions(KeepOfflineExpressions.compile(List.of(
+                new LabelExpression.And(new LabelAtom("linux"), new LabelExpression.Not(new LabelAtom("canary"))))))).isTrue();
+        assertThat(expressions.hasSameExpressions(KeepOfflineExpressions.empty())).isFalse();
+        assertThat(expressions.getExpressions()).containsExactly(LINUX_NOT_CANARY.getExpression());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeepOfflineJournalTest {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void replayReturnsAppendedEntriesInOrder() throws IOException {
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+        assertThat(journal.append("node-0", true)).isEqualTo(1);
+        assertThat(journal.append("linux && !canary", true)).isEqualTo(2);
+        assertThat(journal.append("node-0", false)).isEqualTo(3);
+
+        final List<String> entries = new ArrayList<>();
+        final KeepOfflineJournal reloaded = new KeepOfflineJournal(dir.resolve("journal.log"));
+        reloaded.replay((entry, add) -> entries.add((add ? "add " : "remove ") + entry));
+
+        assertThat(entries).containsExactly("add node-0", "add linux && !canary", "remove node-0").inOrder();
+        assertThat(reloaded.size()).isEqualTo(3);
+    }
+
+    @Test
+    void appendRejectsLineBreaks() throws IOException {
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+
+        assertThrows(IllegalArgumentException.class, () -> journal.append("node-0\n+node-1", true));
+        assertThrows(IllegalArgumentException.class, () -> journal.append("node-0\r", false));
+
+        assertThat(journal.size()).isEqualTo(0);
+        assertThat(Files.exists(dir.resolve("journal.log"))).isFalse();
+    }
+
+    @Test
+    void replayIsSafeToMissingFile() throws IOException {
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+        final List<String> entries = new ArrayList<>();
+        journal.replay((entry, add) -> entries.add(entry));
+
+        assertThat(entries).isEmpty();
+        assertThat(journal.size()).isEqualTo(0);
+    }
+
+    @Test
+    void replaySkipsMalformedLines() throws IOException {
+        final Path file = dir.resolve("journal.log");
+        Files.writeString(file, "+node-0\n\n+\nnode-1\n-node-0\n+node-2", StandardCharsets.UTF_8);
+
+        final List<String> entries = new ArrayList<>();
+        final KeepOfflineJournal journal = new KeepOfflineJournal(file);
+        journal.replay((entry, add) -> entries.add((add ? "+" : "-") + entry));
+
+        assertThat(entries).containsExactly("+node-0", "-node-0", "+node-2").inOrder();
+    }
+
+    @Test
+    void clearRemovesJournal() throws IOException {
+        final Path file = dir.resolve("journal.log");
+        final KeepOfflineJournal journal = new KeepOfflineJournal(file);
+        journal.append("node-0", true);
+        journal.clear();
+
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(journal.size()).isEqualTo(0);
+        journal.clear();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class KeepOfflineNodeCommandTest {
+    private final PoolNodeListener listener = mock(PoolNodeListener.class);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void addsEntries() {
+        when(listener.addKeepOfflineNode("node-0")).thenReturn(true);
+        final KeepOfflineNodeCommand command = create(KeepOfflineNodeCommand.Operation.ADD, "node-0", "node-1");
+
+        assertThat(command.run()).isEqualTo(0);
+
+        verify(listener).addKeepOfflineNode("node-0");
+        verify(listener).addKeepOfflineNode("node-1");
+        verify(listener, never()).removeKeepOfflineNode("node-0");
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList())
+                .containsExactly("updated: node-0", "unchanged: node-1").inOrder();
+    }
+
+    @Test
+    void removesEntries() {
+        when(listener.removeKeepOfflineNode("linux && !canary")).thenReturn(true);
+        final KeepOfflineNodeCommand command = create(KeepOfflineNodeCommand.Operation.REMOVE, "linux && !canary");
+
+        assertThat(command.run()).isEqualTo(0);
+
+        verify(listener).removeKeepOfflineNode("linux && !canary");
+        verify(listener, never()).addKeepOfflineNode("linux && !canary");
+    }
+
+    private KeepOfflineNodeCommand create(KeepOfflineNodeCommand.Operation operation, String... entries) {
+        final KeepOfflineNodeCommand command = mock(KeepOfflineNodeCommand.class,
+                withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        doNothing().when(command).checkPermission();
+        doReturn(listener).when(command).getListener();
+        command.operation = operation;
+        command.entries = List.of(entries);
+        command.stdout = new PrintStream(out, true, StandardCharsets.UTF_8);
+        return command;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.labels.LabelAtom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class LabelAtomFileTest {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void writeStoresSortedNames() throws IOException {
+        final Path path = dir.resolve("labels.txt");
+        new LabelAtomFile(path).write(Set.of(new LabelAtom("node-b"), new LabelAtom("node-a"),
+                new LabelAtom("node-c")));
+
+        assertThat(Files.readString(path, StandardCharsets.UTF_8)).isEqualTo("node-a\nnode-b\nnode-c\n");
+    }
+
+    @Test
+    void readReturnsWrittenLabels() throws IOException {
+        final LabelAtomFile file = new LabelAtomFile(dir.resolve("labels.txt"));
+        final Set<LabelAtom> labels = Set.of(new LabelAtom("node-0"), new LabelAtom("label with space"));
+        file.write(labels);
+
+        assertThat(file.exists()).isTrue();
+        assertThat(file.read(LabelAtom::new)).containsExactlyElementsIn(labels);
+    }
+
+    @Test
+    void readIsSafeToMissingFile() throws IOException {
+        final LabelAtomFile file = new LabelAtomFile(dir.resolve("labels.txt"));
+
+        assertThat(file.exists()).isFalse();
+        assertThat(file.read(LabelAtom::new)).isEmpty();
+    }
+
+    @Test
+    void writeIsSafeToNull() throws IOException {
+        final LabelAtomFile file = new LabelAtomFile(dir.resolve("labels.txt"));
+        file.write(Set.of(new LabelAtom("node-0")));
+        file.write(null);
+
+        assertThat(file.exists()).isTrue();
+        assertThat(file.read(LabelAtom::new)).isEmpty();
+    }
+}
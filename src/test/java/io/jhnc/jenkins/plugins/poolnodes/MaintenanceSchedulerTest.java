@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.labels.LabelAtom;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.jhnc.jenkins.plugins.poolnodes.MaintenanceWindowTest.at;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class MaintenanceSchedulerTest {
+    private final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+    private final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    private final AtomicLong clock = new AtomicLong(at(2, 40));
+    private final List<List<MaintenanceWindow>> edges = new ArrayList<>();
+    private final MaintenanceScheduler scheduler = new MaintenanceScheduler(clock::get, () -> timer, edges::add);
+
+    @Test
+    void snapshotWithoutWindowsIsUnchanged() {
+        final PoolSnapshot snapshot = TestHelper.createSnapshot(false, Collections.emptySet());
+
+        assertThat(scheduler.apply(snapshot)).isSameInstanceAs(snapshot);
+        assertThat(scheduler.getPendingEdges()).isEqualTo(0);
+        verify(timer, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void inactiveWindowSchedulesStart() {
+        final PoolSnapshot snapshot = createSnapshot("* 30 0 * * * *");
+
+        assertThat(scheduler.apply(snapshot)).isSameInstanceAs(snapshot);
+        assertThat(scheduler.getActiveWindows()).isEqualTo(0);
+        verify(timer).schedule(any(Runnable.class), eq(at(3, 0) - at(2, 40)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void activePoolWindowKeepsPoolOffline() {
+        clock.set(at(3, 10));
+        final PoolSnapshot snapshot = createSnapshot("* 30 0 * * * *");
+        final PoolSnapshot effective = scheduler.apply(snapshot);
+
+        assertThat(effective.isKeepOffline()).isTrue();
+        assertThat(effective.getGeneration()).isGreaterThan(snapshot.getGeneration());
+        assertThat(effective.getConfigurationGeneration()).isEqualTo(snapshot.getGeneration());
+        assertThat(scheduler.apply(snapshot)).isSameInstanceAs(effective);
+        verify(timer).schedule(any(Runnable.class), eq(at(3, 30) - at(3, 10)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void activeTargetedWindowKeepsNodesOffline() {
+        clock.set(at(3, 10));
+        final PoolSnapshot effective = scheduler.apply(createSnapshot("linux 30 0 * * * *"));
+
+        assertThat(effective.isKeepOffline()).isFalse();
+        assertThat(effective.getKeepOfflineNodes()).containsExactly(new LabelAtom("linux"));
+    }
+
+    @Test
+    void edgesToggleWindowAndNotify() {
+        final PoolSnapshot snapshot = createSnapshot("* 30 0 * * * *");
+        scheduler.apply(snapshot);
+
+        clock.set(at(3, 0));
+        runScheduled();
+        assertThat(edges).hasSize(1);
+        assertThat(edges.get(0)).containsExactlyElementsIn(snapshot.getMaintenanceWindows());
+        assertThat(scheduler.getVersion()).isEqualTo(1);
+        assertThat(scheduler.apply(snapshot).isKeepOffline()).isTrue();
+
+        clock.set(at(3, 30));
+        runScheduled();
+        assertThat(edges).hasSize(2);
+        assertThat(scheduler.apply(snapshot)).isSameInstanceAs(snapshot);
+        assertThat(scheduler.getPendingEdges()).isEqualTo(1);
+    }
+
+    @Test
+    void earlyWakeupDoesNothing() {
+        scheduler.apply(createSnapshot("* 30 0 * * * *"));
+
+        clock.set(at(2, 50));
+        runScheduled();
+        assertThat(edges).isEmpty();
+        assertThat(scheduler.getVersion()).isEqualTo(0);
+    }
+
+    @Test
+    void newSnapshotReplacesWindows() {
+        scheduler.apply(createSnapshot("* 30 0 * * * *"));
+        scheduler.apply(TestHelper.createSnapshot(false, Collections.emptySet()));
+
+        assertThat(scheduler.getPendingEdges()).isEqualTo(0);
+        verify(future).cancel(false);
+    }
+
+    private PoolSnapshot createSnapshot(String windows) {
+        doReturn(future).when(timer).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        final List<MaintenanceWindow> parsed = MaintenanceWindow.parseAll(windows);
+        return PoolSnapshot.builder()
+                .masterImages(List.of("master"))
+                .testImages(List.of("test"))
+                .maintenanceWindows(parsed)
+                .build();
+    }
+
+    private void runScheduled() {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer, atLeastOnce()).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+        captor.getValue().run();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.labels.LabelAtom;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MaintenanceWindowTest {
+    @Test
+    void parsePoolWideWindow() {
+        final MaintenanceWindow window = MaintenanceWindow.parse("* 30 0 * * * *");
+
+        assertThat(window.isPoolWide()).isTrue();
+        assertThat(window.getTarget()).isNull();
+        assertThat(window.getSpec()).isEqualTo("* 30 0 * * * *");
+    }
+
+    @Test
+    void parseTargetedWindow() {
+        final MaintenanceWindow window = MaintenanceWindow.parse("  linux 30 0 * * * *  ");
+
+        assertThat(window.isPoolWide()).isFalse();
+        assertThat(window.getTarget()).isEqualTo(new LabelAtom("linux"));
+        assertThat(window.getSpec()).isEqualTo("linux 30 0 * * * *");
+    }
+
+    @Test
+    void parseRejectsInvalidLines() {
+        assertThrows(IllegalArgumentException.class, () -> MaintenanceWindow.parse("*"));
+        assertThrows(IllegalArgumentException.class, () -> MaintenanceWindow.parse("* x 0 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> MaintenanceWindow.parse("* 0 0 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> MaintenanceWindow.parse("* 30 0 * *"));
+    }
+
+    @Test
+    void parseAllSkipsBlankLines() {
+        final List<MaintenanceWindow> windows = MaintenanceWindow.parseAll("* 30 0 * * * *\n\n  \nlinux 10 0 2 * * *");
+
+        assertThat(windows).hasSize(2);
+        assertThat(MaintenanceWindow.parseAll(null)).isEmpty();
+        assertThat(MaintenanceWindow.parseAll(" ")).isEmpty();
+    }
+
+    @Test
+    void isActiveWithinDuration() {
+        final MaintenanceWindow window = MaintenanceWindow.parse("* 30 0 * * * *");
+
+        assertThat(window.isActiveAt(at(2, 0))).isTrue();
+        assertThat(window.isActiveAt(at(2, 29))).isTrue();
+        assertThat(window.isActiveAt(at(2, 30))).isFalse();
+        assertThat(window.isActiveAt(at(2, 59))).isFalse();
+    }
+
+    @Test
+    void endAndNextStart() {
+        final MaintenanceWindow window = MaintenanceWindow.parse("* 30 0 * * * *");
+
+        assertThat(window.getEnd(at(2, 10))).isEqualTo(at(2, 30));
+        assertThat(window.getNextStart(at(2, 10))).isEqualTo(at(3, 0));
+        assertThat(window.getNextStart(at(2, 0))).isEqualTo(at(3, 0));
+    }
+
+    static long at(int hour, int minute) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2026, Calendar.MARCH, 2, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
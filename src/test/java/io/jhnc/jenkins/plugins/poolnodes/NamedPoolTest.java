@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class NamedPoolTest {
+    @Test
+    void valuesAreTrimmed() {
+        final NamedPool pool = new NamedPool(" linux ");
+        pool.setLabelPrefix(" vdi-linux ");
+        pool.setPoolLabels(null);
+        pool.setMasterImages(" linux-master ");
+
+        assertThat(pool.getName()).isEqualTo("linux");
+        assertThat(pool.getLabelPrefix()).isEqualTo("vdi-linux");
+        assertThat(pool.getPoolLabels()).isEmpty();
+        assertThat(pool.getMasterImages()).isEqualTo("linux-master");
+        assertThat(pool.getTestImages()).isEmpty();
+        assertThat(pool.getKeepOfflineNodes()).isEmpty();
+    }
+
+    @Test
+    void labelPrefixDefaultsToPoolName() {
+        final NamedPool pool = new NamedPool("linux");
+        assertThat(pool.getEffectiveLabelPrefix()).isEqualTo("vdi-pool-linux");
+
+        pool.setLabelPrefix("vdi-linux");
+        assertThat(pool.getEffectiveLabelPrefix()).isEqualTo("vdi-linux");
+    }
+
+    @Test
+    void validNames() {
+        assertThat(NamedPool.isValidName("linux")).isTrue();
+        assertThat(NamedPool.isValidName(" linux ")).isTrue();
+
+        assertThat(NamedPool.isValidName(null)).isFalse();
+        assertThat(NamedPool.isValidName(" ")).isFalse();
+        assertThat(NamedPool.isValidName("default")).isFalse();
+        assertThat(NamedPool.isValidName("linux pool")).isFalse();
+    }
+}
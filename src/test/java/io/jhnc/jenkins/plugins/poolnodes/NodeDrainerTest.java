@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class NodeDrainerTest {
+    private final List<Computer> drained = new ArrayList<>();
+    private final NodeDrainer drainer = new NodeDrainer(drained::add);
+
+    @Test
+    void isSafeToNull() {
+        assertThat(drainer.isDraining(null)).isFalse();
+        assertThat(drainer.cancel(null)).isFalse();
+    }
+
+    @Test
+    void drainTracksComputer() {
+        final Computer computer = createComputer("node-0");
+        drainer.drain(computer, c -> { });
+
+        assertThat(drainer.isDraining("node-0")).isTrue();
+        assertThat(drainer.isDraining("node-1")).isFalse();
+        assertThat(drainer.getDrainingNodes()).containsExactly("node-0");
+    }
+
+    @Test
+    void checkKeepsBusyComputers() {
+        final Computer computer = createComputer("node-0");
+        final List<Computer> applied = new ArrayList<>();
+        drainer.drain(computer, applied::add);
+
+        drainer.check();
+
+        assertThat(drainer.isDraining("node-0")).isTrue();
+        assertThat(applied).isEmpty();
+        assertThat(drained).isEmpty();
+    }
+
+    @Test
+    void checkCompletesIdleComputers() {
+        final Computer busy = createComputer("node-0");
+        final Computer idle = createComputer("node-1");
+        doReturn(true).when(idle).isIdle();
+        final List<Computer> applied = new ArrayList<>();
+        drainer.drain(busy, applied::add);
+        drainer.drain(idle, applied::add);
+
+        drainer.check();
+
+        assertThat(applied).containsExactly(idle);
+        assertThat(drained).containsExactly(idle);
+        assertThat(drainer.getDrainingNodes()).containsExactly("node-0");
+    }
+
+    @Test
+    void cancelStopsDrain() {
+        final Computer computer = createComputer("node-0");
+        drainer.drain(computer, c -> { });
+
+        assertThat(drainer.cancel("node-0")).isTrue();
+        assertThat(drainer.cancel("node-0")).isFalse();
+
+        doReturn(true).when(computer).isIdle();
+        drainer.check();
+        assertThat(drained).isEmpty();
+    }
+
+    @Test
+    void changesCountDrainStartsAndEnds() {
+        final Computer busy = createComputer("node-0");
+        final Computer idle = createComputer("node-1");
+        doReturn(true).when(idle).isIdle();
+        assertThat(drainer.isAnyDraining()).isFalse();
+
+        drainer.drain(busy, c -> { });
+        drainer.drain(idle, c -> { });
+        assertThat(drainer.getChanges()).isEqualTo(2L);
+        assertThat(drainer.isAnyDraining()).isTrue();
+
+        drainer.check();
+        assertThat(drainer.getChanges()).isEqualTo(3L);
+        drainer.cancel("node-1");
+        assertThat(drainer.getChanges()).isEqualTo(3L);
+        drainer.cancel("node-0");
+        assertThat(drainer.getChanges()).isEqualTo(4L);
+        assertThat(drainer.isAnyDraining()).isFalse();
+    }
+
+    private Computer createComputer(String name) {
+        final Computer computer = mock(Computer.class);
+        doReturn(name).when(computer).getName();
+        return computer;
+    }
+}
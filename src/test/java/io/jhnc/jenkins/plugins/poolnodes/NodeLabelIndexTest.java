@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+class NodeLabelIndexTest {
+    @Test
+    void updateIndexesLabelsAndNodeName() {
+        final NodeLabelIndex index = create();
+        index.update(TestHelper.create("node-0", List.of("a", "b")));
+        index.update(TestHelper.create("node-1", List.of("b")));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("a")))).containsExactly("node-0");
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("b")))).containsExactly("node-0", "node-1");
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("node-1")))).containsExactly("node-1");
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("c")))).isEmpty();
+    }
+
+    @Test
+    void getIndexedLabelsDoesNotIndexNodes() {
+        final NodeLabelIndex index = create();
+        final Node node = TestHelper.create("node-0", List.of("a", "b"));
+
+        assertThat(index.getIndexedLabels(node)).isNull();
+        assertThat(index.getIndexedLabels(null)).isNull();
+        assertThat(index.size()).isEqualTo(0);
+
+        index.update(node);
+        assertThat(index.getIndexedLabels(node))
+                .containsExactly(new LabelAtom("a"), new LabelAtom("b"), new LabelAtom("node-0"));
+        assertThat(index.getIndexedLabels(TestHelper.create("node-0", List.of("a")))).isNull();
+    }
+
+    @Test
+    void updateIsSafeToNull() {
+        final NodeLabelIndex index = create();
+        index.update(null);
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test
+    void updateReplacesChangedLabels() {
+        final NodeLabelIndex index = create();
+        index.update(TestHelper.create("node-0", List.of("a")));
+        index.update(TestHelper.create("node-0", List.of("b")));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("a")))).isEmpty();
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("b")))).containsExactly("node-0");
+        assertThat(index.unindexed(Set.of(new LabelAtom("a"), new LabelAtom("b")))).containsExactly(new LabelAtom("a"));
+    }
+
+    @Test
+    void removeUnlinksLabels() {
+        final NodeLabelIndex index = create();
+        index.update(TestHelper.create("node-0", List.of("a")));
+        index.update(TestHelper.create("node-1", List.of("a")));
+        index.remove("node-0");
+        index.remove("unknown");
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("a")))).containsExactly("node-1");
+        assertThat(index.unindexed(Set.of(new LabelAtom("node-0")))).containsExactly(new LabelAtom("node-0"));
+    }
+
+    @Test
+    void hasAnyLabelUsesIndexedLabels() {
+        final NodeLabelIndex index = create();
+        final Node node = TestHelper.create("node-0", List.of("a"));
+
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("a")))).isTrue();
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("node-0")))).isTrue();
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("b")))).isFalse();
+        assertThat(index.hasAnyLabel(node, Collections.emptySet())).isFalse();
+        assertThat(index.hasAnyLabel(null, Set.of(new LabelAtom("a")))).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void hasAnyLabelRefreshesOnLabelChange() {
+        final NodeLabelIndex index = create();
+        final Node node = TestHelper.create("node-0", List.of("a"));
+        index.update(node);
+        when(node.getLabelString()).thenReturn("b");
+
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("a")))).isFalse();
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("b")))).isTrue();
+    }
+
+    @Test
+    void updateIsSafeToNullLabelString() {
+        final NodeLabelIndex index = create();
+        index.update(TestHelper.create("node-0"));
+
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("node-0")))).containsExactly("node-0");
+    }
+
+    @Test
+    void updateIndexesFoundLabels() {
+        final NodeLabelIndex index = create();
+        final Node node = TestHelper.create("node-0", List.of("a"));
+        index.update(node, Set.of(new LabelAtom("found")));
+
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("found")))).containsExactly("node-0");
+        assertThat(index.hasAnyLabel(node, Set.of(new LabelAtom("found")))).isTrue();
+
+        when(node.getLabelString()).thenReturn("b");
+        index.update(node);
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("found")))).containsExactly("node-0");
+
+        index.update(node, Set.of());
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("found")))).isEmpty();
+        assertThat(index.nodesWithAny(Set.of(new LabelAtom("b")))).containsExactly("node-0");
+    }
+
+    @Test
+    void unindexedContainsAllLabelsIfOtherLabelFindersExist() {
+        final NodeLabelIndex index = new NodeLabelIndex(TestHelper::simpleParseLabel, () -> true);
+        index.update(TestHelper.create("node-0", List.of("a")));
+
+        assertThat(index.unindexed(Set.of(new LabelAtom("a"), new LabelAtom("b"))))
+                .containsExactly(new LabelAtom("a"), new LabelAtom("b"));
+    }
+
+    @Test
+    void unindexedIsCachedUntilIndexedLabelsChange() {
+        final NodeLabelIndex index = create();
+        final Set<LabelAtom> labels = Set.of(new LabelAtom("a"), new LabelAtom("b"));
+        index.update(TestHelper.create("node-0", List.of("a")));
+
+        final Set<LabelAtom> unindexed = index.unindexed(labels);
+        index.update(TestHelper.create("node-1", List.of("a")));
+        assertThat(index.unindexed(labels)).isSameInstanceAs(unindexed);
+
+        index.update(TestHelper.create("node-2", List.of("b")));
+        assertThat(index.unindexed(labels)).isEmpty();
+    }
+
+    private NodeLabelIndex create() {
+        return new NodeLabelIndex(TestHelper::simpleParseLabel);
+    }
+}
@@ -24,11 +24,15 @@
 
 package io.jhnc.jenkins.plugins.poolnodes;
 
+import hudson.model.Node;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.doReturn;
@@ -163,4 +167,97 @@ class NodeNamesTest {
         assertThat(nodeNames.isProdNode(TestHelper.create("host.is-master"))).isFalse();
         assertThat(nodeNames.isProdNode(TestHelper.create("host.is-test"))).isFalse();
     }
+
+    @Test
+    void imageTypeClassifiesNodes() {
+        final NodeNames nodeNames = new TestHelper.TestNodeNames();
+        assertThat(nodeNames.getImageType(TestHelper.create("master.pool0", Collections.singletonList("vdi-pool"))))
+                .isEqualTo(PoolImageLabel.MASTER);
+        assertThat(nodeNames.getImageType(TestHelper.create("test.pool0"))).isEqualTo(PoolImageLabel.TEST);
+        assertThat(nodeNames.getImageType(TestHelper.create("node", Collections.singletonList("vdi-pool"))))
+                .isEqualTo(PoolImageLabel.PRODUCTION);
+        assertThat(nodeNames.getImageType(TestHelper.create("node", Collections.singletonList("unrelated")))).isNull();
+        assertThat(nodeNames.getImageType(null)).isNull();
+    }
+
+    @Test
+    void imageTypeIsCached() {
+        final AtomicInteger parseCount = new AtomicInteger();
+        final NodeNames nodeNames = createCountingNodeNames(parseCount, new AtomicReference<>(createSnapshot()));
+        final Node node = TestHelper.create("node", Collections.singletonList("vdi-pool"));
+
+        assertThat(nodeNames.isProdNode(node)).isTrue();
+        assertThat(nodeNames.isProdNode(node)).isTrue();
+        assertThat(nodeNames.getImageType(node)).isEqualTo(PoolImageLabel.PRODUCTION);
+        assertThat(parseCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void imageTypeIsReevaluatedOnLabelChange() {
+        final AtomicInteger parseCount = new AtomicInteger();
+        final NodeNames nodeNames = createCountingNodeNames(parseCount, new AtomicReference<>(createSnapshot()));
+        final Node node = TestHelper.create("node", Collections.singletonList("vdi-pool"));
+
+        assertThat(nodeNames.isProdNode(node)).isTrue();
+        doReturn("unrelated").when(node).getLabelString();
+        assertThat(nodeNames.isProdNode(node)).isFalse();
+        assertThat(parseCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void imageTypeIsReevaluatedOnConfigurationChange() {
+        final AtomicInteger parseCount = new AtomicInteger();
+        final AtomicReference<PoolSnapshot> snapshot = new AtomicReference<>(createSnapshot());
+        final NodeNames nodeNames = createCountingNodeNames(parseCount, snapshot);
+        final Node node = TestHelper.create("node", Collections.singletonList("vdi-pool"));
+
+        assertThat(nodeNames.isProdNode(node)).isTrue();
+        snapshot.set(PoolSnapshot.builder().masterImages(List.of("NODE")).build());
+        assertThat(nodeNames.getImageType(node)).isEqualTo(PoolImageLabel.MASTER);
+        assertThat(parseCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void namedPoolsAreResolved() {
+        final AtomicInteger parseCount = new AtomicInteger();
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", false)))
+                .build();
+        final NodeNames nodeNames = createCountingNodeNames(parseCount, new AtomicReference<>(snapshot));
+
+        final Node master = TestHelper.create("linux-master-0");
+        final Node prod = TestHelper.create("node-0", Collections.singletonList("vdi-pool-linux-0"));
+        final Node defaultProd = TestHelper.create("node-1", Collections.singletonList("vdi-pool-test"));
+
+        assertThat(nodeNames.isMasterNode(master)).isTrue();
+        assertThat(nodeNames.getAssignment(master, snapshot).getPoolName()).isEqualTo("linux");
+        assertThat(nodeNames.getProdPool(prod, snapshot)).isEqualTo("linux");
+        assertThat(nodeNames.getProdPool(defaultProd, snapshot)).isEqualTo(NodePool.DEFAULT_NAME);
+        assertThat(nodeNames.getProdPool(master, snapshot)).isNull();
+    }
+
+    @Test
+    void prodNodeWithoutSnapshotBelongsToDefaultPool() {
+        final NodeNames nodeNames = createCountingNodeNames(new AtomicInteger(), new AtomicReference<>());
+
+        assertThat(nodeNames.isProdNode(TestHelper.create("node-0", Collections.singletonList("vdi-pool")))).isTrue();
+        assertThat(nodeNames.getProdPool(TestHelper.create("node-0", Collections.singletonList("vdi-pool")), null))
+                .isEqualTo(NodePool.DEFAULT_NAME);
+    }
+
+    private static PoolSnapshot createSnapshot() {
+        return TestHelper.createSnapshot(false, Collections.emptySet());
+    }
+
+    private static NodeNames createCountingNodeNames(AtomicInteger parseCount, AtomicReference<PoolSnapshot> snapshot) {
+        return new NodeNames(labels -> {
+            parseCount.incrementAndGet();
+            return TestHelper.simpleParseLabel(labels);
+        }) {
+            @Override
+            protected PoolSnapshot getSnapshot() {
+                return snapshot.get();
+            }
+        };
+    }
 }
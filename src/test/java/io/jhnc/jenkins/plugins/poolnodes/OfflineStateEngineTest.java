@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import hudson.slaves.OfflineCause;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OfflineStateEngineTest {
+    @Test
+    void nodeReasonTakesPrecedenceOverPoolReason() {
+        assertThat(OfflineStateEngine.decide(true, true, true).getReason()).isEqualTo(OfflineStateEngine.Reason.NODE);
+        assertThat(OfflineStateEngine.decide(false, true, true).getReason()).isEqualTo(OfflineStateEngine.Reason.NODE);
+        assertThat(OfflineStateEngine.decide(true, true, false).getReason()).isEqualTo(OfflineStateEngine.Reason.POOL);
+    }
+
+    @Test
+    void poolReasonAppliesToPoolNodesOnly() {
+        assertThat(OfflineStateEngine.decide(false, true, false).getReason()).isNull();
+        assertThat(OfflineStateEngine.decide(true, false, false).getReason()).isNull();
+    }
+
+    @Test
+    void decisionsAreShared() {
+        assertThat(OfflineStateEngine.decide(true, true, false)).isSameInstanceAs(OfflineStateEngine.decide(true, true, false));
+        assertThat(OfflineStateEngine.decide(true, false, false).isManaged()).isTrue();
+        assertThat(OfflineStateEngine.decide(false, false, false).isManaged()).isFalse();
+    }
+
+    @Test
+    void reasonOfCause() {
+        assertThat(OfflineStateEngine.Reason.of(new PoolNodeListener.NodeOfflineCause())).isEqualTo(OfflineStateEngine.Reason.NODE);
+        assertThat(OfflineStateEngine.Reason.of(new PoolNodeListener.PoolOfflineCause())).isEqualTo(OfflineStateEngine.Reason.POOL);
+        assertThat(OfflineStateEngine.Reason.of(mock(OfflineCause.class))).isNull();
+        assertThat(OfflineStateEngine.Reason.of(null)).isNull();
+    }
+
+    @Test
+    void applySetsCauseOfReason() {
+        final Computer computer = mock(Computer.class);
+        new OfflineStateEngine().apply(computer, OfflineStateEngine.decide(true, true, false));
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void applyBringsManagedNodeOnline() {
+        final Computer computer = mock(Computer.class);
+        doReturn(mock(OfflineCause.class)).when(computer).getOfflineCause();
+
+        final OfflineStateEngine engine = new OfflineStateEngine();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, false, false))).isTrue();
+        verify(computer).setTemporaryOfflineCause(isNull());
+        assertThat(engine.getAppliedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void applySkipsOnlineManagedNode() {
+        final Computer computer = mock(Computer.class);
+        final OfflineStateEngine engine = new OfflineStateEngine();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, false, false))).isFalse();
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        assertThat(engine.getSkippedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void applySkipsSameReason() {
+        final Computer computer = mock(Computer.class);
+        doReturn(true).when(computer).isOffline();
+        doReturn(new PoolNodeListener.NodeOfflineCause()).when(computer).getOfflineCause();
+        final OfflineStateEngine engine = new OfflineStateEngine();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, true, true))).isFalse();
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        assertThat(engine.getAppliedTransitions()).isEqualTo(0);
+        assertThat(engine.getSkippedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void applyReplacesOtherReason() {
+        final Computer computer = mock(Computer.class);
+        doReturn(true).when(computer).isOffline();
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
+        final OfflineStateEngine engine = new OfflineStateEngine();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, true, true))).isTrue();
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        assertThat(engine.getAppliedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void applyClearsOwnCauseOnUnmanagedNode() {
+        final Computer computer = mock(Computer.class);
+        doReturn(true).when(computer).isOffline();
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
+
+        new OfflineStateEngine().apply(computer, OfflineStateEngine.decide(false, true, false));
+
+        verify(computer).setTemporaryOfflineCause(isNull());
+    }
+
+    @Test
+    void applyDrainsBusyComputer() {
+        final NodeDrainer drainer = new NodeDrainer(c -> { });
+        final OfflineStateEngine engine = new OfflineStateEngine(drainer);
+        final Computer computer = mock(Computer.class);
+        doReturn("node-0").when(computer).getName();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, true, false), true)).isFalse();
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        assertThat(drainer.isDraining("node-0")).isTrue();
+        assertThat(engine.getDeferredTransitions()).isEqualTo(1);
+
+        doReturn(true).when(computer).isIdle();
+        drainer.check();
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        assertThat(drainer.isDraining("node-0")).isFalse();
+        assertThat(engine.getAppliedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void applyTakesIdleComputerOfflineWithoutDrain() {
+        final NodeDrainer drainer = new NodeDrainer(c -> { });
+        final OfflineStateEngine engine = new OfflineStateEngine(drainer);
+        final Computer computer = mock(Computer.class);
+        doReturn("node-0").when(computer).getName();
+        doReturn(true).when(computer).isIdle();
+
+        assertThat(engine.apply(computer, OfflineStateEngine.decide(true, true, false), true)).isTrue();
+        assertThat(drainer.isDraining("node-0")).isFalse();
+    }
+
+    @Test
+    void applyCancelsDrainIfComputerShouldBeOnline() {
+        final NodeDrainer drainer = new NodeDrainer(c -> { });
+        final OfflineStateEngine engine = new OfflineStateEngine(drainer);
+        final Computer computer = mock(Computer.class);
+        doReturn("node-0").when(computer).getName();
+        engine.apply(computer, OfflineStateEngine.decide(true, true, false), true);
+
+        engine.apply(computer, OfflineStateEngine.decide(true, false, false), true);
+
+        assertThat(drainer.isDraining("node-0")).isFalse();
+        verify(computer, never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void applyKeepsForeignCauseOnUnmanagedNode() {
+        final Computer computer = mock(Computer.class);
+        doReturn(true).when(computer).isOffline();
+        doReturn(mock(OfflineCause.class)).when(computer).getOfflineCause();
+
+        new OfflineStateEngine().apply(computer, OfflineStateEngine.decide(false, false, false));
+
+        verify(computer, never()).setTemporaryOfflineCause(any());
+    }
+}
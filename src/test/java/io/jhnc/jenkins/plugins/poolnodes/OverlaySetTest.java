@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OverlaySetTest {
+    @Test
+    void ofCopiesElements() {
+        final List<String> elements = new ArrayList<>(List.of("a", "b"));
+        final OverlaySet<String> set = OverlaySet.of(elements);
+        elements.add("c");
+
+        assertThat(set).containsExactly("a", "b");
+        assertThat(OverlaySet.of(set)).isSameInstanceAs(set);
+        assertThat(OverlaySet.<String>of(null)).isEmpty();
+    }
+
+    @Test
+    void plusAndMinusLeaveOriginalUnchanged() {
+        final OverlaySet<String> original = OverlaySet.of(Set.of("a", "b"));
+
+        final OverlaySet<String> updated = original.plus(List.of("c")).minus(List.of("a"));
+
+        assertThat(original).containsExactly("a", "b");
+        assertThat(updated).containsExactly("b", "c");
+        assertThat(updated).hasSize(2);
+        assertThat(updated.contains("a")).isFalse();
+        assertThat(updated.plus(List.of("a"))).containsExactly("a", "b", "c");
+        assertThat(updated.minus(List.of("c"))).containsExactly("b");
+    }
+
+    @Test
+    void updatingOlderVersionLeavesNewerUnchanged() {
+        final OverlaySet<String> original = OverlaySet.of(Set.of("a"));
+        final OverlaySet<String> first = original.plus(List.of("b"));
+        final OverlaySet<String> second = original.plus(List.of("c"));
+
+        assertThat(first).containsExactly("a", "b");
+        assertThat(second).containsExactly("a", "c");
+        assertThat(first.minus(List.of("a"))).containsExactly("b");
+        assertThat(second).hasSize(2);
+    }
+
+    @Test
+    void unionLeavesSourceUnchanged() {
+        final OverlaySet<String> set = OverlaySet.of(Set.of("a")).plus(List.of("b"));
+        final OverlaySet<String> union = set.union(List.of("b", "c"));
+
+        assertThat(union).containsExactly("a", "b", "c");
+        assertThat(union).hasSize(3);
+        assertThat(set).containsExactly("a", "b");
+        assertThat(set.union(List.of("a"))).isSameInstanceAs(set);
+        assertThat(union.minus(List.of("a"))).containsExactly("b", "c");
+    }
+
+    @Test
+    void unchangedUpdatesReturnSameInstance() {
+        final OverlaySet<String> set = OverlaySet.of(Set.of("a"));
+
+        assertThat(set.plus(List.of("a"))).isSameInstanceAs(set);
+        assertThat(set.minus(List.of("b"))).isSameInstanceAs(set);
+    }
+
+    @Test
+    void compactsLargeDeltas() {
+        OverlaySet<String> set = OverlaySet.of(Set.of("base"));
+        for (int i = 0; i < 100; ++i) {
+            set = set.plus(List.of("node-" + i));
+        }
+        for (int i = 0; i < 50; ++i) {
+            set = set.minus(List.of("node-" + i));
+        }
+
+        final Set<String> expected = IntStream.range(50, 100)
+                .mapToObj(i -> "node-" + i)
+                .collect(Collectors.toCollection(HashSet::new));
+        expected.add("base");
+        assertThat(set).containsExactlyElementsIn(expected);
+        assertThat(set).hasSize(51);
+        assertThat(set.minus(set).isEmpty()).isTrue();
+    }
+
+    @Test
+    void isUnmodifiable() {
+        final OverlaySet<String> set = OverlaySet.of(Set.of("a")).plus(List.of("b"));
+        final Iterator<String> iterator = set.iterator();
+        iterator.next();
+
+        assertThrows(UnsupportedOperationException.class, () -> set.add("c"));
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+}
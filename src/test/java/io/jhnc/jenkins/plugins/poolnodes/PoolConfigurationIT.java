@@ -24,6 +24,9 @@
 
 package io.jhnc.jenkins.plugins.poolnodes;
 
+import hudson.model.Computer;
+import hudson.model.labels.LabelAtom;
+import hudson.slaves.DumbSlave;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.htmlunit.html.HtmlCheckBoxInput;
 import org.htmlunit.html.HtmlPage;
@@ -40,9 +43,16 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -130,6 +140,61 @@ class PoolConfigurationIT {
         assertThat(entryElement2.isChecked()).isTrue();
     }
 
+    @Test
+    void labelsAreStoredInLabelFiles(JenkinsRule r) throws Exception {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor(r);
+
+        submitEntry(r, goToConfigure(r), "keepOfflineNodes", "value-b value-a");
+
+        assertThat(Files.readString(getLabelFile(r, "keepOfflineNodes"), StandardCharsets.UTF_8))
+                .isEqualTo("value-a\nvalue-b\n");
+        assertThat(Files.readString(getConfigFile(r), StandardCharsets.UTF_8)).doesNotContain("value-a");
+
+        descriptor.load();
+        assertThat(getValuesFromDescriptor(descriptor, "keepOfflineNodes")).containsExactly("value-a", "value-b");
+    }
+
+    @Test
+    void legacyLabelsAreMigrated(JenkinsRule r) throws Exception {
+        final PoolConfiguration.DescriptorImpl descriptor = getDescriptor(r);
+        final Field legacy = PoolConfiguration.DescriptorImpl.class.getDeclaredField("keepOfflineNodes");
+        legacy.setAccessible(true);
+        legacy.set(descriptor, new HashSet<>(Set.of(LabelAtom.get("legacy-a"))));
+        descriptor.save();
+        assertThat(Files.readString(getConfigFile(r), StandardCharsets.UTF_8)).contains("legacy-a");
+
+        descriptor.load();
+
+        assertThat(descriptor.getKeepOfflineNodesLabelAtoms()).containsExactly(LabelAtom.get("legacy-a"));
+        assertThat(legacy.get(descriptor)).isNull();
+        assertThat(Files.readString(getConfigFile(r), StandardCharsets.UTF_8)).doesNotContain("legacy-a");
+        assertThat(Files.readString(getLabelFile(r, "keepOfflineNodes"), StandardCharsets.UTF_8))
+                .isEqualTo("legacy-a\n");
+    }
+
+    private Path getConfigFile(JenkinsRule r) {
+        return r.jenkins.getRootDir().toPath().resolve(PoolConfiguration.class.getName() + ".xml");
+    }
+
+    private Path getLabelFile(JenkinsRule r, String name) {
+        return r.jenkins.getRootDir().toPath().resolve(PoolConfiguration.class.getName() + "." + name + ".txt");
+    }
+
+    @Test
+    void updateTakesAgentsOffline(JenkinsRule r) throws Exception {
+        final DumbSlave agent = r.createOnlineSlave();
+        final Computer computer = agent.toComputer();
+
+        getDescriptor(r).update(descriptor -> descriptor.setKeepOfflineNodes(agent.getNodeName()));
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (!computer.isTemporarilyOffline() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(computer.isTemporarilyOffline()).isTrue();
+        assertThat(computer.getOfflineCause()).isInstanceOf(PoolNodeListener.NodeOfflineCause.class);
+    }
+
     private PoolConfiguration.DescriptorImpl getDescriptor(JenkinsRule r) {
         return r.jenkins.getDescriptorByType(PoolConfiguration.DescriptorImpl.class);
     }
@@ -24,24 +24,35 @@
 
 package io.jhnc.jenkins.plugins.poolnodes;
 
+import hudson.BulkChange;
 import hudson.model.Descriptor;
+import hudson.model.Label;
 import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
 import hudson.util.FormValidation;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.kohsuke.stapler.StaplerRequest2;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.withSettings;
 
@@ -193,6 +204,16 @@ class PoolConfigurationTest {
         verify(descriptor).save();
     }
 
+    @Test
+    void setMasterImagesCompilesMatcher() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.getSnapshot().findImage("host-a")).isNull();
+
+        descriptor.setMasterImages("host-a host-b");
+        assertThat(descriptor.getSnapshot().findImage("HOST-A.pool").getImageType()).isEqualTo(PoolImageLabel.MASTER);
+        assertThat(descriptor.getSnapshot().findImage("host-c")).isNull();
+    }
+
     @Test
     void configureSetsMasterImages() throws Descriptor.FormException {
         final PoolConfiguration.DescriptorImpl descriptor = create();
@@ -205,6 +226,26 @@ class PoolConfigurationTest {
         assertThat(descriptor.getMasterImageNames()).containsExactly("host-a", "host-b", "host-c");
     }
 
+    @Test
+    void configureRejectsInvalidImages() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject().element("masterImages", "host-a re:(a)\\1");
+
+        final Descriptor.FormException e = assertThrows(Descriptor.FormException.class,
+                () -> descriptor.configure(req, json));
+        assertThat(e.getFormField()).isEqualTo("masterImages");
+        assertThat(descriptor.getMasterImages()).isEmpty();
+    }
+
+    @Test
+    void imageFormValidationRejectsNamedGroups() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.doCheckMasterImages("re:(?<x>a) host-b").kind).isEqualTo(FormValidation.Kind.ERROR);
+        assertThat(descriptor.doCheckTestImages("re:(?<x>a)").kind).isEqualTo(FormValidation.Kind.ERROR);
+        assertThat(descriptor.doCheckTestImages("re:(a)b host-*").kind).isEqualTo(FormValidation.Kind.OK);
+    }
+
     @Test
     void masterImageFormValidationChecksPermission() {
         final PoolConfiguration.DescriptorImpl descriptor = create();
@@ -280,6 +321,16 @@ class PoolConfigurationTest {
         verify(descriptor).save();
     }
 
+    @Test
+    void setTestImagesCompilesMatcher() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.getSnapshot().findImage("host.a")).isNull();
+
+        descriptor.setTestImages("host.a");
+        assertThat(descriptor.getSnapshot().findImage("Host.A-0").getImageType()).isEqualTo(PoolImageLabel.TEST);
+        assertThat(descriptor.getSnapshot().findImage("host.b")).isNull();
+    }
+
     @Test
     void configureSetsTestImages() throws Descriptor.FormException {
         final PoolConfiguration.DescriptorImpl descriptor = create();
@@ -411,6 +462,419 @@ class PoolConfigurationTest {
                 .containsExactlyElementsIn(asLabelAtoms(List.of("host.a", "host.b", "host.c")));
     }
 
+    @Test
+    void setKeepOfflineNodesSeparatesExpressions() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        descriptor.setKeepOfflineNodes("host-1 host-2\n linux && !canary \n\nhost-3");
+
+        assertThat(descriptor.getKeepOfflineNodesLabelAtoms())
+                .containsExactlyElementsIn(asLabelAtoms(List.of("host-1", "host-2", "host-3")));
+        assertThat(descriptor.getKeepOfflineExpressions()).containsExactly("linux && !canary");
+        assertThat(descriptor.getKeepOfflineNodes().split("\n")).asList().contains("linux && !canary");
+    }
+
+    @Test
+    void snapshotCompilesKeepOfflineExpressions() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final Label expression = new LabelExpression.And(new LabelAtom("linux"),
+                new LabelExpression.Not(new LabelAtom("canary")));
+        doReturn(expression).when(descriptor).parseExpression("linux && !canary");
+        doThrow(new IllegalArgumentException("invalid")).when(descriptor).parseExpression("linux &&");
+        descriptor.setKeepOfflineNodes("linux && !canary\nlinux &&");
+
+        assertThat(descriptor.getSnapshot().getKeepOfflineExpressions().getExpressions())
+                .containsExactly(expression.getExpression());
+    }
+
+    @Test
+    void keepOfflineNodesFormValidationRejectsInvalidExpression() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        doThrow(new IllegalArgumentException("invalid")).when(descriptor).parseExpression("linux &&");
+        assertThat(descriptor.doCheckKeepOfflineNodes("host-1\nlinux &&").kind).isEqualTo(FormValidation.Kind.ERROR);
+        assertThat(descriptor.doCheckKeepOfflineNodes("host-1 host-2").kind).isEqualTo(FormValidation.Kind.OK);
+    }
+
+    @Test
+    void addKeepOfflineNodeUpdatesSnapshotAndJournal(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+        doReturn(journal).when(descriptor).getJournal();
+        descriptor.setKeepOfflineNodes("node-a");
+        final PoolSnapshot before = descriptor.getSnapshot();
+
+        assertThat(descriptor.addKeepOfflineNode(" node-b ")).isTrue();
+        assertThat(descriptor.addKeepOfflineNode("node-b")).isFalse();
+
+        assertThat(descriptor.getKeepOfflineNodesLabelAtoms())
+                .containsExactlyElementsIn(asLabelAtoms(List.of("node-a", "node-b")));
+        assertThat(descriptor.getSnapshot().getKeepOfflineNodes())
+                .containsExactlyElementsIn(asLabelAtoms(List.of("node-a", "node-b")));
+        assertThat(descriptor.getSnapshot().getGeneration()).isGreaterThan(before.getGeneration());
+        assertThat(descriptor.getSnapshot().getConfigurationGeneration())
+                .isEqualTo(before.getConfigurationGeneration());
+        assertThat(journal.size()).isEqualTo(1);
+        verify(descriptor, times(1)).persist();
+    }
+
+    @Test
+    void addKeepOfflineNodeRejectsBlankAndMultiLineEntries(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+        doReturn(journal).when(descriptor).getJournal();
+        descriptor.setKeepOfflineNodes("node-a");
+        final PoolSnapshot before = descriptor.getSnapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> descriptor.addKeepOfflineNode("  "));
+        assertThrows(IllegalArgumentException.class, () -> descriptor.addKeepOfflineNode("node-b\nnode-c"));
+        assertThrows(IllegalArgumentException.class, () -> descriptor.addKeepOfflineNode("node-b\r"));
+        assertThrows(IllegalArgumentException.class, () -> descriptor.removeKeepOfflineNode("node-a\n+node-b"));
+
+        assertThat(descriptor.getSnapshot()).isSameInstanceAs(before);
+        assertThat(descriptor.getKeepOfflineNodesLabelAtoms())
+                .containsExactlyElementsIn(asLabelAtoms(List.of("node-a")));
+        assertThat(journal.size()).isEqualTo(0);
+    }
+
+    @Test
+    void addKeepOfflineNodeSharesLabelsWithSnapshot(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        doReturn(new KeepOfflineJournal(dir.resolve("journal.log"))).when(descriptor).getJournal();
+        descriptor.setKeepOfflineNodes("node-a");
+        final Set<LabelAtom> before = descriptor.getKeepOfflineNodesLabelAtoms();
+
+        descriptor.addKeepOfflineNode("node-b");
+
+        assertThat(before).containsExactly(new LabelAtom("node-a"));
+        assertThat(descriptor.getSnapshot().getGlobalKeepOfflineNodes())
+                .isSameInstanceAs(descriptor.getKeepOfflineNodesLabelAtoms());
+        assertThrows(UnsupportedOperationException.class,
+                () -> descriptor.getKeepOfflineNodesLabelAtoms().add(new LabelAtom("node-c")));
+        assertThrows(UnsupportedOperationException.class,
+                () -> descriptor.getKeepOfflineExpressions().add("linux && gpu"));
+    }
+
+    @Test
+    void removeKeepOfflineNodeUpdatesSnapshotAndJournal(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final KeepOfflineJournal journal = new KeepOfflineJournal(dir.resolve("journal.log"));
+        doReturn(journal).when(descriptor).getJournal();
+        descriptor.setKeepOfflineNodes("node-a\nnode-b");
+
+        assertThat(descriptor.removeKeepOfflineNode("node-a")).isTrue();
+        assertThat(descriptor.removeKeepOfflineNode("node-c")).isFalse();
+
+        assertThat(descriptor.getKeepOfflineNodesLabelAtoms()).containsExactly(new LabelAtom("node-b"));
+        assertThat(descriptor.getSnapshot().getKeepOfflineNodes()).containsExactly(new LabelAtom("node-b"));
+        assertThat(journal.size()).isEqualTo(1);
+    }
+
+    @Test
+    void addKeepOfflineNodeCompilesExpressions(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final Label expression = new LabelExpression.And(new LabelAtom("linux"),
+                new LabelExpression.Not(new LabelAtom("canary")));
+        doReturn(new KeepOfflineJournal(dir.resolve("journal.log"))).when(descriptor).getJournal();
+        doReturn(expression).when(descriptor).parseExpression("linux && !canary");
+        doThrow(new IllegalArgumentException("invalid")).when(descriptor).parseExpression("linux &&");
+
+        assertThat(descriptor.addKeepOfflineNode("linux && !canary")).isTrue();
+        assertThrows(IllegalArgumentException.class, () -> descriptor.addKeepOfflineNode("linux &&"));
+
+        assertThat(descriptor.getKeepOfflineExpressions()).containsExactly("linux && !canary");
+        assertThat(descriptor.getSnapshot().getKeepOfflineExpressions().getExpressions())
+                .containsExactly(expression.getExpression());
+
+        assertThat(descriptor.removeKeepOfflineNode("linux && !canary")).isTrue();
+        assertThat(descriptor.getSnapshot().getKeepOfflineExpressions().isEmpty()).isTrue();
+    }
+
+    @Test
+    void addKeepOfflineNodeCompactsJournal(@TempDir Path dir) {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        doReturn(new KeepOfflineJournal(dir.resolve("journal.log"))).when(descriptor).getJournal();
+
+        for (int i = 0; i < 500; ++i) {
+            descriptor.addKeepOfflineNode("node-0");
+            descriptor.removeKeepOfflineNode("node-0");
+        }
+        verify(descriptor, never()).persist();
+
+        descriptor.addKeepOfflineNode("node-0");
+        verify(descriptor).persist();
+    }
+
+    @Test
+    void snapshotReflectsConfiguration() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        descriptor.setPoolLabels("label-a label-b");
+        descriptor.setMasterImages("master-a");
+        descriptor.setTestImages("test-a");
+        descriptor.setKeepOffline(true);
+        descriptor.setKeepOfflineNodes("host-1 host-2");
+
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        assertThat(snapshot.getPoolLabelAtoms()).containsExactlyElementsIn(asLabelAtoms(List.of("label-a", "label-b")));
+        assertThat(snapshot.findImage("master-a0").getImageType()).isEqualTo(PoolImageLabel.MASTER);
+        assertThat(snapshot.findImage("test-a0").getImageType()).isEqualTo(PoolImageLabel.TEST);
+        assertThat(snapshot.isKeepOffline()).isTrue();
+        assertThat(snapshot.getKeepOfflineNodes()).containsExactlyElementsIn(asLabelAtoms(List.of("host-1", "host-2")));
+    }
+
+    @Test
+    void snapshotIsReplacedOnUpdate() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final PoolSnapshot before = descriptor.getSnapshot();
+        assertThat(descriptor.getSnapshot()).isSameInstanceAs(before);
+
+        descriptor.setKeepOffline(true);
+        final PoolSnapshot after = descriptor.getSnapshot();
+        assertThat(after.getGeneration()).isGreaterThan(before.getGeneration());
+        assertThat(before.isKeepOffline()).isFalse();
+        assertThat(after.isKeepOffline()).isTrue();
+    }
+
+    @Test
+    void configureSavesOnce() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final long generation = descriptor.getSnapshot().getGeneration();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject()
+                .element("poolLabels", "label-1")
+                .element("masterImages", "host-a")
+                .element("testImages", "host.a")
+                .element("keepOffline", true)
+                .element("keepOfflineNodes", "host-1");
+
+        descriptor.configure(req, json);
+        verify(descriptor, times(1)).persist();
+
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        assertThat(snapshot.getGeneration()).isGreaterThan(generation);
+        assertThat(snapshot.isKeepOffline()).isTrue();
+        assertThat(snapshot.getPoolLabelAtoms()).containsExactlyElementsIn(asLabelAtoms(List.of("label-1")));
+        assertThat(snapshot.getKeepOfflineNodes()).containsExactlyElementsIn(asLabelAtoms(List.of("host-1")));
+        assertThat(snapshot.findImage("host-a").getImageType()).isEqualTo(PoolImageLabel.MASTER);
+        assertThat(snapshot.findImage("host.a").getImageType()).isEqualTo(PoolImageLabel.TEST);
+    }
+
+    @Test
+    void settersInBulkChangeSaveOnce() throws IOException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+
+        try (BulkChange bulkChange = new BulkChange(descriptor)) {
+            descriptor.setPoolLabels("label-1");
+            descriptor.setKeepOffline(true);
+            descriptor.setKeepOfflineNodes("host-1");
+            assertThat(descriptor.getSnapshot().isKeepOffline()).isFalse();
+            bulkChange.commit();
+        }
+
+        verify(descriptor, times(1)).persist();
+        assertThat(descriptor.getSnapshot().isKeepOffline()).isTrue();
+    }
+
+    @Test
+    void updateSavesOnce() throws IOException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final long generation = descriptor.getSnapshot().getGeneration();
+
+        descriptor.update(d -> {
+            d.setPoolLabels("label-1");
+            d.setKeepOffline(true);
+            d.setKeepOfflineNodes("host-1");
+            d.addKeepOfflineNode("host-2");
+            d.setReleaseWaveSize(3);
+        });
+
+        verify(descriptor, times(1)).persist();
+        verify(descriptor, times(1)).notifyAgents();
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        assertThat(snapshot.getGeneration()).isGreaterThan(generation);
+        assertThat(snapshot.isKeepOffline()).isTrue();
+        assertThat(snapshot.getKeepOfflineNodes()).containsExactlyElementsIn(asLabelAtoms(List.of("host-1", "host-2")));
+        assertThat(snapshot.getReleasePolicy().getWaveSize()).isEqualTo(3);
+    }
+
+    @Test
+    void releasePolicyImmediateOnDefault() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.getReleaseWaveSize()).isEqualTo(0);
+        assertThat(descriptor.getReleaseWaveInterval()).isEqualTo(0);
+        assertThat(descriptor.getReleaseMaxQueueLength()).isEqualTo(0);
+        assertThat(descriptor.getSnapshot().getReleasePolicy().isStaged()).isFalse();
+    }
+
+    @Test
+    void setReleasePolicySavesUpdate() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        descriptor.setReleaseWaveSize(10);
+        descriptor.setReleaseWaveInterval(30);
+        descriptor.setReleaseMaxQueueLength(-1);
+
+        assertThat(descriptor.getReleaseWaveSize()).isEqualTo(10);
+        assertThat(descriptor.getReleaseWaveInterval()).isEqualTo(30);
+        assertThat(descriptor.getReleaseMaxQueueLength()).isEqualTo(0);
+        verify(descriptor, times(3)).save();
+    }
+
+    @Test
+    void configureSetsReleasePolicy() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject()
+                .element("releaseWaveSize", 20)
+                .element("releaseWaveInterval", 60)
+                .element("releaseMaxQueueLength", 5);
+
+        descriptor.configure(req, json);
+
+        final ReleasePolicy policy = descriptor.getSnapshot().getReleasePolicy();
+        assertThat(policy.isStaged()).isTrue();
+        assertThat(policy.getWaveSize()).isEqualTo(20);
+        assertThat(policy.getWaveIntervalSeconds()).isEqualTo(60);
+        assertThat(policy.isQueueGated()).isTrue();
+        assertThat(policy.getMaxQueueLength()).isEqualTo(5);
+    }
+
+    @Test
+    void configureSetsElasticRelease() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject()
+                .element("elasticRelease", true)
+                .element("elasticTargetWait", 120)
+                .element("elasticCooldown", -1)
+                .element("elasticPrewarm", 45);
+
+        descriptor.configure(req, json);
+
+        assertThat(descriptor.isElasticRelease()).isTrue();
+        final ReleasePolicy policy = descriptor.getSnapshot().getReleasePolicy();
+        assertThat(policy.isElastic()).isTrue();
+        assertThat(policy.getElasticTargetWaitSeconds()).isEqualTo(120);
+        assertThat(policy.getElasticCooldownSeconds()).isEqualTo(0);
+        assertThat(policy.isPrewarming()).isTrue();
+        assertThat(policy.getElasticPrewarmMinutes()).isEqualTo(45);
+        assertThat(policy.isStaged()).isFalse();
+    }
+
+    @Test
+    void maintenanceWindowsEmptyOnDefault() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.getMaintenanceWindows()).isEmpty();
+        assertThat(descriptor.getSnapshot().getMaintenanceWindows()).isEmpty();
+    }
+
+    @Test
+    void configureSetsMaintenanceWindows() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject()
+                .element("maintenanceWindows", " * 30 0 2 * * *\nhost-5 60 H 3 * * 0 ");
+
+        descriptor.configure(req, json);
+
+        assertThat(descriptor.getMaintenanceWindows()).isEqualTo("* 30 0 2 * * *\nhost-5 60 H 3 * * 0");
+        assertThat(descriptor.getSnapshot().getMaintenanceWindows()).hasSize(2);
+    }
+
+    @Test
+    void invalidMaintenanceWindowsAreIgnored() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        descriptor.setMaintenanceWindows("* x 0 2 * * *");
+
+        assertThat(descriptor.getSnapshot().getMaintenanceWindows()).isEmpty();
+    }
+
+    @Test
+    void maintenanceWindowsFormValidation() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.doCheckMaintenanceWindows("* 30 0 2 * * *").kind).isEqualTo(FormValidation.Kind.OK);
+        assertThat(descriptor.doCheckMaintenanceWindows("").kind).isEqualTo(FormValidation.Kind.OK);
+        assertThat(descriptor.doCheckMaintenanceWindows("* 30").kind).isEqualTo(FormValidation.Kind.ERROR);
+        verify(descriptor, times(3)).checkPermission(Jenkins.ADMINISTER);
+    }
+
+    @Test
+    void poolsEmptyOnDefault() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.getPools()).isEmpty();
+        assertThat(descriptor.getSnapshot().getPools()).hasSize(1);
+    }
+
+    @Test
+    void setPoolsPublishesNamedPools() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final NamedPool pool = new NamedPool("linux");
+        pool.setMasterImages("linux-master linux-base");
+        pool.setPoolLabels("label-0 label-1");
+        pool.setKeepOffline(true);
+
+        descriptor.setPools(List.of(pool, new NamedPool("default"), new NamedPool(" ")));
+
+        final NodePool published = descriptor.getSnapshot().getPool("linux");
+        assertThat(descriptor.getPools()).hasSize(3);
+        assertThat(descriptor.getSnapshot().getPools()).hasSize(2);
+        assertThat(published.getLabelPrefix()).isEqualTo("vdi-pool-linux");
+        assertThat(descriptor.getSnapshot().findImage("linux-base-0").getPoolName()).isEqualTo("linux");
+        assertThat(published.getPoolLabelAtoms()).containsExactlyElementsIn(asLabelAtoms(List.of("label-0", "label-1")));
+        assertThat(published.isKeepOffline()).isTrue();
+        verify(descriptor).save();
+    }
+
+    @Test
+    void configureSetsPools() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        final JSONObject json = new JSONObject().element("pools", new JSONObject().element("name", "linux"));
+        doReturn(List.of(new NamedPool("linux"))).when(req).bindJSONToList(NamedPool.class, json.get("pools"));
+
+        descriptor.configure(req, json);
+
+        assertThat(descriptor.getPools()).hasSize(1);
+        assertThat(descriptor.getSnapshot().getPool("linux")).isNotNull();
+    }
+
+    @Test
+    void configureKeepsPoolsIfAbsent() throws Descriptor.FormException {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final StaplerRequest2 req = mock(StaplerRequest2.class);
+        descriptor.setPools(List.of(new NamedPool("linux")));
+
+        descriptor.configure(req, new JSONObject().element("keepOffline", true));
+        assertThat(descriptor.getPools()).hasSize(1);
+
+        descriptor.configure(req, new JSONObject().element("poolsSubmitted", true));
+        assertThat(descriptor.getPools()).isEmpty();
+    }
+
+    @Test
+    void namedPoolKeepOfflineExpressionsAreScoped() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        final Label expression = new LabelExpression.And(new LabelAtom("linux"),
+                new LabelExpression.Not(new LabelAtom("canary")));
+        doReturn(expression).when(descriptor).parseExpression("linux && !canary");
+        final NamedPool pool = new NamedPool("linux");
+        pool.setKeepOfflineNodes("node-0\nlinux && !canary");
+
+        descriptor.setPools(List.of(pool));
+
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        assertThat(snapshot.getKeepOfflineExpressions().isEmpty()).isTrue();
+        assertThat(snapshot.getPoolKeepOfflineExpressions("linux").getExpressions())
+                .containsExactly(expression.getExpression());
+        assertThat(snapshot.getPoolKeepOfflineNodes("linux")).containsExactly(new LabelAtom("node-0"));
+        assertThat(snapshot.getGlobalKeepOfflineNodes()).isEmpty();
+    }
+
+    @Test
+    void imagesFormValidationRejectsInvalidPattern() {
+        final PoolConfiguration.DescriptorImpl descriptor = create();
+        assertThat(descriptor.doCheckMasterImages("host re:win-(").kind).isEqualTo(FormValidation.Kind.ERROR);
+        assertThat(descriptor.doCheckTestImages("re:win-(").kind).isEqualTo(FormValidation.Kind.ERROR);
+        assertThat(descriptor.doCheckMasterImages("host win-* re:win-\\d+").kind).isEqualTo(FormValidation.Kind.OK);
+    }
+
     @Test
     void keepOfflineNodesFormValidationChecksPermission() {
         final PoolConfiguration.DescriptorImpl descriptor = create();
@@ -443,7 +907,8 @@ class PoolConfigurationTest {
         doAnswer(invocation -> TestHelper.simpleParseLabel(invocation.getArgument(0, String.class)))
                 .when(descriptor).parseLabels(anyString());
         doNothing().when(descriptor).load();
-        doNothing().when(descriptor).save();
+        doNothing().when(descriptor).persist();
+        doNothing().when(descriptor).notifyAgents();
         doNothing().when(descriptor).checkPermission(Jenkins.ADMINISTER);
         return descriptor;
     }
@@ -24,6 +24,8 @@
 
 package io.jhnc.jenkins.plugins.poolnodes;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
 import hudson.model.Node;
 import hudson.model.Queue;
 import hudson.model.labels.LabelAtom;
@@ -36,8 +38,10 @@ import java.util.Objects;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class PoolImageBlockingDispatcherTest {
@@ -99,7 +103,99 @@ class PoolImageBlockingDispatcherTest {
         assertThat(dispatcher.canTake(TestHelper.create("mAsTER.pOoL1"), item)).isNotNull();
     }
 
+    @Test
+    void incrementalDispatcherBlocksRestrictedNodes() {
+        final PoolImageBlockingDispatcher dispatcher = createIncremental(false);
+        assertThat(dispatcher.canTake(TestHelper.create("agent-0"), item)).isNull();
+        assertThat(dispatcher.canTake(TestHelper.create("MASTER.POOL1"), item)).isNotNull();
+        assertThat(createIncremental(true).canTake(TestHelper.create("agent-0"), item)).isNotNull();
+    }
+
+    @Test
+    void incrementalDispatcherReusesBlockage() {
+        final PoolImageBlockingDispatcher dispatcher = createIncremental(false);
+        final Node node = TestHelper.create("master.pool0");
+        final CauseOfBlockage cause = dispatcher.canTake(node, item);
+
+        assertThat(Objects.requireNonNull(cause).getShortDescription()).contains("master.pool0");
+        clearInvocations(node);
+        assertThat(dispatcher.canTake(node, item)).isSameInstanceAs(cause);
+        verify(node).getNodeName();
+    }
+
+    @Test
+    void incrementalDispatcherReevaluatesReplacedNode() {
+        final PoolImageBlockingDispatcher dispatcher = createIncremental(false);
+        final Node node = TestHelper.create("master.pool0");
+        final CauseOfBlockage cause = dispatcher.canTake(node, item);
+        final Node replacement = TestHelper.create("master.pool0");
+        final CauseOfBlockage replaced = dispatcher.canTake(replacement, item);
+
+        assertThat(replaced).isNotSameInstanceAs(cause);
+        assertThat(dispatcher.canTake(replacement, item)).isSameInstanceAs(replaced);
+        assertThat(dispatcher.canTake(node, item)).isNotSameInstanceAs(replaced);
+    }
+
+    @Test
+    void incrementalDispatcherReevaluatesForgottenNode() {
+        final PoolImageBlockingDispatcher dispatcher = createIncremental(false);
+        final Node node = TestHelper.create("master.pool0");
+        final CauseOfBlockage cause = dispatcher.canTake(node, item);
+
+        dispatcher.forget(node);
+        assertThat(dispatcher.canTake(node, item)).isNotSameInstanceAs(cause);
+    }
+
+    @Test
+    void dispatcherBlocksItemIfDrainingNode() {
+        final NodeDrainer drainer = new NodeDrainer(computer -> { });
+        final PoolImageBlockingDispatcher dispatcher =
+                new PoolImageBlockingDispatcher(new TestHelper.TestNodeNames(), true, drainer);
+        final Computer computer = mock(Computer.class);
+        doReturn("agent-0").when(computer).getName();
+        final Node node = TestHelper.create("agent-0");
+
+        assertThat(dispatcher.canTake(node, item)).isNull();
+
+        drainer.drain(computer, c -> { });
+        assertThat(dispatcher.canTake(node, item)).isInstanceOf(PoolImageBlockingDispatcher.DrainingNodeBlockage.class);
+        assertThat(dispatcher.canTake(TestHelper.create("agent-1"), item)).isNull();
+
+        drainer.cancel("agent-0");
+        assertThat(dispatcher.canTake(node, item)).isNull();
+    }
+
+    @Test
+    void incrementalDispatcherReusesDrainBlockage() {
+        final NodeDrainer drainer = new NodeDrainer(computer -> { });
+        final PoolImageBlockingDispatcher dispatcher =
+                new PoolImageBlockingDispatcher(new TestHelper.TestNodeNames(), true, drainer);
+        final Computer computer = mock(Computer.class);
+        doReturn("agent-0").when(computer).getName();
+        final Node node = TestHelper.create("agent-0");
+        final Node other = TestHelper.create("agent-1");
+        drainer.drain(computer, c -> { });
+
+        final CauseOfBlockage cause = dispatcher.canTake(node, item);
+        assertThat(dispatcher.canTake(other, item)).isNull();
+        clearInvocations(node, other);
+
+        assertThat(dispatcher.canTake(node, item)).isSameInstanceAs(cause);
+        assertThat(dispatcher.canTake(other, item)).isNull();
+        verify(node).getNodeName();
+        verify(other).getNodeName();
+    }
+
     private PoolImageBlockingDispatcher create() {
         return Mockito.spy(new PoolImageBlockingDispatcher(new TestHelper.TestNodeNames()));
     }
+
+    private PoolImageBlockingDispatcher createIncremental(boolean hasMasterImageLabel) {
+        return new PoolImageBlockingDispatcher(new TestHelper.TestNodeNames(), true) {
+            @Override
+            protected boolean hasMasterImageLabel(@NonNull Node node) {
+                return hasMasterImageLabel;
+            }
+        };
+    }
 }
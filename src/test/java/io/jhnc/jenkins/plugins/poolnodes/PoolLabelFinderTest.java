@@ -30,13 +30,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class PoolLabelFinderTest {
     @Test
@@ -80,8 +87,72 @@ class PoolLabelFinderTest {
                 new LabelAtom("label-0"), new LabelAtom("label-1"));
     }
 
+    @Test
+    void returnsSharedLabelSets() {
+        final Node node0 = TestHelper.create("node-0", Collections.singletonList("vdi-pool-test"));
+        final Node node1 = TestHelper.create("node-1", Collections.singletonList("vdi-pool-test"));
+        final Node node2 = TestHelper.create("master.pool0");
+        final PoolLabelFinder labelFinder = create();
+        doReturn(Set.of(new LabelAtom("label-0"))).when(labelFinder).getConfiguredLabel();
+
+        assertThat(labelFinder.findLabels(node0)).isSameInstanceAs(labelFinder.findLabels(node1));
+        assertThat(labelFinder.findLabels(node2)).isSameInstanceAs(labelFinder.findLabels(node2));
+        verify(labelFinder, times(1)).assignedLabels(PoolImageLabel.PRODUCTION);
+        verify(labelFinder, times(1)).getConfiguredLabel();
+    }
+
+    @Test
+    void sharedLabelSetsAreImmutable() {
+        final Node node = TestHelper.create("node-0", Collections.singletonList("vdi-pool-test"));
+        final PoolLabelFinder labelFinder = create();
+        doReturn(Collections.emptySet()).when(labelFinder).getConfiguredLabel();
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> labelFinder.findLabels(node).add(new LabelAtom("label-0")));
+    }
+
+    @Test
+    void rebuildsLabelSetsOnConfigurationChange() {
+        final Node node = TestHelper.create("node-0", Collections.singletonList("vdi-pool-test"));
+        final TestHelper.TestNodeNames nodeNames = spy(new TestHelper.TestNodeNames());
+        final PoolLabelFinder labelFinder = create(nodeNames);
+        doReturn(TestHelper.snapshotBuilder().poolLabelAtoms(Set.of(new LabelAtom("label-0"))).build())
+                .when(nodeNames).getSnapshot();
+        final Collection<LabelAtom> before = labelFinder.findLabels(node);
+
+        doReturn(TestHelper.snapshotBuilder().poolLabelAtoms(Set.of(new LabelAtom("label-1"))).build())
+                .when(nodeNames).getSnapshot();
+        final Collection<LabelAtom> after = labelFinder.findLabels(node);
+
+        assertThat(before).containsExactly(new LabelAtom("vdi-image-prod"), new LabelAtom("label-0"));
+        assertThat(after).containsExactly(new LabelAtom("vdi-image-prod"), new LabelAtom("label-1"));
+    }
+
+    @Test
+    void returnsLabelsOfNamedPool() {
+        final Node node0 = TestHelper.create("node-0", Collections.singletonList("vdi-pool-linux-0"));
+        final Node node1 = TestHelper.create("node-1", Collections.singletonList("vdi-pool-test"));
+        final TestHelper.TestNodeNames nodeNames = spy(new TestHelper.TestNodeNames());
+        final PoolLabelFinder labelFinder = create(nodeNames);
+        doReturn(TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", false)))
+                .build()).when(nodeNames).getSnapshot();
+        doReturn(Set.of(new LabelAtom("label-0"))).when(labelFinder).getConfiguredLabel();
+
+        assertThat(labelFinder.findLabels(node0)).containsExactly(new LabelAtom("vdi-image-prod"),
+                new LabelAtom("linux-label"));
+        assertThat(labelFinder.findLabels(node1)).containsExactly(new LabelAtom("vdi-image-prod"),
+                new LabelAtom("label-0"));
+        assertThat(labelFinder.findLabels(TestHelper.create("linux-master-0")))
+                .containsExactly(new LabelAtom("vdi-image-master"));
+    }
+
     private PoolLabelFinder create() {
-        final PoolLabelFinder labelFinder = Mockito.spy(new PoolLabelFinder(new TestHelper.TestNodeNames()));
+        return create(new TestHelper.TestNodeNames());
+    }
+
+    private PoolLabelFinder create(NodeNames nodeNames) {
+        final PoolLabelFinder labelFinder = Mockito.spy(new PoolLabelFinder(nodeNames));
         doAnswer(invocation -> Collections.singleton(new LabelAtom(invocation.getArgument(0, PoolImageLabel.class).getLabelName())))
                 .when(labelFinder).assignedLabels(any(PoolImageLabel.class));
         return labelFinder;
@@ -1,24 +1,40 @@
 package io.jhnc.jenkins.plugins.poolnodes;
 
 import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Queue;
 import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
 import hudson.slaves.OfflineCause;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 class PoolNodeListenerTest {
 
@@ -41,6 +57,7 @@ class PoolNodeListenerTest {
     @Test
     void preOnlineKeepsNodeOnlineIfKeepOfflineIsFalse() {
         final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
 
         final PoolNodeListener listener = create(false);
         listener.preOnline(computer, null, null, null);
@@ -122,6 +139,7 @@ class PoolNodeListenerTest {
         final List<Computer> nodes = Arrays.asList(
                 createComputer("unrelated-0", Collections.emptyList()),
                 createComputer("node-1", Collections.singletonList("vdi-pool-test")));
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(nodes.get(1)).getOfflineCause();
         doReturn(nodes).when(listener).getComputers();
 
         listener.onConfigurationChange();
@@ -176,18 +194,742 @@ class PoolNodeListenerTest {
         listener.onConfigurationChange();
     }
 
+    @Test
+    void onConfigurationChangeSkipsUnchangedNodes() {
+        final PoolNodeListener listener = create(true);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("unrelated-0", Collections.emptyList()),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-2", Collections.singletonList("keep-offline-node")));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+        listener.onConfigurationChange();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(1), times(1)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        verify(nodes.get(2), times(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeUpdatesProdNodesOnlyIfKeepOfflineChanged() {
+        final PoolNodeListener listener = create(true);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("keep-offline-node")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(nodes.toArray());
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(nodes.get(0)).getOfflineCause();
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("keep-offline-node"))))
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(isNull());
+        verify(nodes.get(1), never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void onConfigurationChangeKeepsKeepOfflineNodeOfflineIfPoolChanged() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", List.of("vdi-pool-test", "keep-offline-node"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(computer);
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("keep-offline-node"))))
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(computer, never()).setTemporaryOfflineCause(isNull());
+    }
+
+    @Test
+    void onConfigurationChangeUpdatesOnlyNodesOfChangedKeepOfflineEntries() {
+        final PoolNodeListener listener = create(false);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("keep-offline-node")),
+                createComputer("node-1", Collections.singletonList("other-node")),
+                createComputer("node-2", Collections.singletonList("unrelated-node")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(nodes.toArray());
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("other-node"))))
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(0)).isOffline();
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(2), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(2), never()).isOffline();
+    }
+
+    @Test
+    void onConfigurationChangeUpdatesReplacedNode() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(TestHelper.create("node-0", Collections.singletonList("vdi-pool-test"))).when(computer).getNode();
+        doReturn(computer).when(listener).getComputer("node-0");
+        listener.onNodeChanged("node-0");
+
+        verify(computer, times(2)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeSkipsAppliedConfiguration() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        listener.onConfigurationChange();
+
+        verify(listener, times(1)).getComputers();
+    }
+
+    @Test
+    void onNodeChangedReconcilesNamedNodeOnly() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer0 = createComputer("node-0", Collections.singletonList("unrelated"));
+        final Computer computer1 = createComputer("node-1", Collections.singletonList("unrelated"));
+        doReturn(Arrays.asList(computer0, computer1)).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(listener, computer0, computer1);
+
+        doReturn(TestHelper.create("node-1", Collections.singletonList("keep-offline-node"))).when(computer1).getNode();
+        doReturn(computer1).when(listener).getComputer("node-1");
+        listener.onNodeChanged("node-1");
+
+        verify(listener, never()).getComputers();
+        verify(computer0, never()).getNode();
+        verify(computer1).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void onNodeChangedReconcilesAllIfConfigurationNotApplied() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+
+        listener.onNodeChanged("node-0");
+
+        verify(listener).getComputers();
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void onNodeChangedForgetsDeletedNode() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(null).when(listener).getComputer("node-0");
+        listener.onNodeChanged("node-0");
+        doReturn(computer).when(listener).getComputer("node-0");
+        listener.onNodeChanged("node-0");
+
+        verify(computer, times(2)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeMatchesKeepOfflineNodesByName() {
+        final PoolNodeListener listener = create(false);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.emptyList()),
+                createComputer("node-1", Collections.emptyList()));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("node-1")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeDoesNotResolveAssignedLabelsOfIndexedNodes() {
+        final PoolNodeListener listener = create(false);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("other-node")),
+                createComputer("node-1", Collections.singletonList("keep-offline-node")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(nodes.get(0).getNode(), nodes.get(1).getNode());
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("other-node")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(0).getNode(), never()).getAssignedLabels();
+        verify(nodes.get(1).getNode(), never()).getAssignedLabels();
+    }
+
+    @Test
+    void onConfigurationChangeMatchesLabelsFromLabelFinders() {
+        final PoolNodeListener listener = create(false);
+        final Computer computer = createComputer("node-0", Collections.singletonList("static"));
+        doReturn(Set.of(new LabelAtom("static"), new LabelAtom("found"))).when(computer.getNode()).getAssignedLabels();
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("found")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeMatchesLabelStaticOnOneNodeAndFoundOnAnother() {
+        final PoolNodeListener listener = create(false);
+        final Computer staticNode = createComputer("node-0", Collections.singletonList("shared"));
+        final Computer foundNode = createComputer("node-1", Collections.singletonList("other"));
+        doReturn(Set.of(new LabelAtom("shared"))).when(listener).findPoolLabels(foundNode.getNode());
+        doReturn(List.of(staticNode, foundNode)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("shared")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(staticNode).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(foundNode).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void preOnlineMatchesFoundLabelStaticOnOtherNode() {
+        final PoolNodeListener listener = create(false);
+        final Computer staticNode = createComputer("node-0", Collections.singletonList("keep-offline-node"));
+        final Computer foundNode = createComputer("node-1", Collections.singletonList("other"));
+        doReturn(Set.of(new LabelAtom("keep-offline-node"))).when(listener).findPoolLabels(foundNode.getNode());
+
+        listener.preOnline(staticNode, null, null, null);
+        listener.preOnline(foundNode, null, null, null);
+
+        verify(staticNode).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(foundNode).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void preOnlineAppliesSingleTransitionToKeepOfflineProdNode() {
+        final Computer computer = createComputer("node-0", List.of("vdi-pool-test", "keep-offline-node"));
+
+        final PoolNodeListener listener = create(true);
+        listener.preOnline(computer, null, null, null);
+
+        verify(computer, times(1)).setTemporaryOfflineCause(any());
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeKeepsProdNodeInPoolStateIfRemovedFromKeepOfflineNodes() {
+        final PoolNodeListener listener = create(true);
+        final Computer computer = createComputer("node-0", List.of("vdi-pool-test", "keep-offline-node"));
+        doReturn(Collections.singletonList(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+        clearInvocations(computer);
+
+        doReturn(TestHelper.createSnapshot(true, Collections.emptySet())).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(computer, times(1)).setTemporaryOfflineCause(any());
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void preOnlineSkipsUnchangedOfflineCause() {
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
+
+        final PoolNodeListener listener = create(true);
+        listener.preOnline(computer, null, null, null);
+
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        assertThat(listener.getOfflineState().getSkippedTransitions()).isEqualTo(1);
+        assertThat(listener.getOfflineState().getAppliedTransitions()).isEqualTo(0);
+    }
+
+    @Test
+    void preOnlineSkipsOnlineProdNode() {
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+
+        final PoolNodeListener listener = create(false);
+        listener.preOnline(computer, null, null, null);
+
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        assertThat(listener.getOfflineState().getSkippedTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void onConfigurationChangeReleasesPoolInWaves() {
+        final PoolNodeListener listener = create(true);
+        final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+        doReturn(timer).when(listener).getTimer();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-2", Collections.singletonList("vdi-pool-test")),
+                createComputer("unrelated-3", Collections.emptyList()));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        for (final Computer computer : nodes.subList(0, 3)) {
+            doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
+        }
+        clearInvocations(nodes.toArray());
+
+        doReturn(TestHelper.snapshotBuilder().releasePolicy(new ReleasePolicy(2, 30, 0)).build())
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(isNull());
+        verify(nodes.get(1)).setTemporaryOfflineCause(isNull());
+        verify(nodes.get(2), never()).setTemporaryOfflineCause(any());
+        verify(timer).schedule(any(Runnable.class), eq(30L), eq(TimeUnit.SECONDS));
+        assertThat(listener.getRelease().getRemaining()).isEqualTo(1);
+    }
+
+    @Test
+    void onConfigurationChangeCancelsReleaseIfPoolIsTakenOfflineAgain() {
+        final PoolNodeListener listener = create(true);
+        final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+        doReturn(timer).when(listener).getTimer();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        doReturn(TestHelper.snapshotBuilder().releasePolicy(new ReleasePolicy(1, 30, 0)).build())
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+        final WaveRelease release = listener.getRelease();
+
+        doReturn(TestHelper.createSnapshot(true, Collections.emptySet())).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        assertThat(release.isDone()).isTrue();
+        assertThat(listener.getRelease()).isNull();
+    }
+
+    @Test
+    void asynchronousReconciliationCompletes() throws Exception {
+        final PoolNodeListener listener = create(true, new ReconciliationExecutor(2));
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("keep-offline-node")),
+                createComputer("unrelated-2", Collections.emptyList()));
+        doReturn(nodes).when(listener).getComputers();
+
+        final ReconciliationProgress progress = listener.reconcile();
+        progress.getCompletion().get(30, TimeUnit.SECONDS);
+
+        assertThat(listener.getLastProgress()).isSameInstanceAs(progress);
+        assertThat(progress.getTotal()).isEqualTo(3);
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(2), never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void onConfigurationChangeKeepsPoolOfflineDuringMaintenanceWindow() {
+        final PoolNodeListener listener = create(false);
+        final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+        doReturn(timer).when(listener).getTimer();
+        doReturn(TestHelper.snapshotBuilder().maintenanceWindows(MaintenanceWindow.parseAll("* 60 * * * * *")).build())
+                .when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("unrelated-1", Collections.emptyList()));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        verify(nodes.get(1), never()).setTemporaryOfflineCause(any());
+        verify(timer).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+        assertThat(listener.getMaintenance().getActiveWindows()).isEqualTo(1);
+    }
+
+    @Test
+    void onConfigurationChangeKeepsTargetedNodeOfflineDuringMaintenanceWindow() {
+        final PoolNodeListener listener = create(false);
+        doReturn(mock(ScheduledExecutorService.class)).when(listener).getTimer();
+        doReturn(TestHelper.snapshotBuilder()
+                .maintenanceWindows(MaintenanceWindow.parseAll("node-1 60 * * * * *"))
+                .build())
+                .when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+    }
+
+    @Test
+    void maintenanceChangeReconcilesOnlyTargetedNodes() {
+        final PoolNodeListener listener = create(false);
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder().build();
+        doReturn(snapshot).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")));
+        doReturn(nodes).when(listener).getComputers();
+        doReturn(nodes.get(1)).when(listener).getComputer("node-1");
+        listener.reconcile();
+
+        doReturn(snapshot.withKeepOffline(false, Set.of(new LabelAtom("node-1")))).when(listener).getSnapshot();
+        listener.onMaintenanceChange(MaintenanceWindow.parseAll("node-1 30 0 * * * *"));
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(listener, times(1)).getComputers();
+    }
+
+    @Test
+    void onConfigurationChangeKeepsNamedPoolOffline() {
+        final PoolNodeListener listener = create(false);
+        doReturn(TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", true)))
+                .build()).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-linux-0")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        verify(nodes.get(1), never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void onConfigurationChangeScopesKeepOfflineNodesToPool() {
+        final PoolNodeListener listener = create(false);
+        final NodePool linux = new NodePool("linux", "vdi-pool-linux", List.of("linux-master"), List.of("linux-test"),
+                Set.of(), false, Set.of(new LabelAtom("gpu")))
+                .withKeepOfflineExpressions(List.of(new LabelExpression.Not(new LabelAtom("gpu"))));
+        doReturn(TestHelper.snapshotBuilder()
+                .pools(List.of(linux, TestHelper.createPool("windows", false)))
+                .build()).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", List.of("vdi-pool-linux-0", "gpu")),
+                createComputer("node-1", List.of("vdi-pool-linux-0")),
+                createComputer("node-2", List.of("vdi-pool-windows-0", "gpu")),
+                createComputer("node-3", List.of("vdi-pool-windows-0")),
+                createComputer("node-4", List.of("gpu")));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(2), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(3), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(4), never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void onConfigurationChangeUpdatesOnlyNodesOfChangedPool() {
+        final PoolNodeListener listener = create(false);
+        doReturn(TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", true), TestHelper.createPool("windows", false)))
+                .build())
+                .when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-linux-0")),
+                createComputer("node-1", Collections.singletonList("vdi-pool-windows-0")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(nodes.get(0)).getOfflineCause();
+        clearInvocations(nodes.toArray());
+
+        doReturn(TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", true), TestHelper.createPool("windows", true)))
+                .build())
+                .when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+    }
+
+    @Test
+    void onConfigurationChangeKeepsNodesMatchingExpressionOffline() {
+        final PoolNodeListener listener = create(false);
+        doReturn(TestHelper.snapshotBuilder()
+                .keepOfflineExpressions(List.of(new LabelExpression.And(new LabelAtom("linux"),
+                        new LabelExpression.Not(new LabelAtom("canary")))))
+                .build()).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("linux")),
+                createComputer("node-1", List.of("linux", "canary")),
+                createComputer("node-2", Collections.singletonList("windows")));
+        doReturn(nodes).when(listener).getComputers();
+
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(1), never()).setTemporaryOfflineCause(any());
+        verify(nodes.get(2), never()).setTemporaryOfflineCause(any());
+    }
+
+    @Test
+    void onConfigurationChangeUpdatesOnlyNodesWithChangedExpressionResult() {
+        final PoolNodeListener listener = create(false);
+        doReturn(TestHelper.snapshotBuilder()
+                .keepOfflineExpressions(List.of(new LabelExpression.And(new LabelAtom("linux"),
+                        new LabelExpression.Not(new LabelAtom("canary")))))
+                .build()).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("linux")),
+                createComputer("node-1", List.of("linux", "canary")),
+                createComputer("node-2", Collections.singletonList("windows")));
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        doReturn(new PoolNodeListener.NodeOfflineCause()).when(nodes.get(0)).getOfflineCause();
+        clearInvocations(nodes.toArray());
+
+        doReturn(TestHelper.snapshotBuilder()
+                .keepOfflineExpressions(List.of(new LabelExpression.And(new LabelAtom("linux"),
+                        new LabelExpression.Not(new LabelAtom("gpu")))))
+                .build()).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(nodes.get(0), never()).isOffline();
+        verify(nodes.get(1)).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(nodes.get(2), never()).isOffline();
+    }
+
+    @Test
+    void sampleDemandReleasesHeldAgentsForWaitingItems() {
+        final PoolNodeListener listener = create(false);
+        doReturn(createElasticSnapshot()).when(listener).getSnapshot();
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-1", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")));
+        nodes.forEach(computer -> doReturn(true).when(computer).isIdle());
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        for (final Computer computer : nodes) {
+            doReturn(new PoolNodeListener.PoolOfflineCause()).when(computer).getOfflineCause();
+            doReturn(computer).when(listener).getComputer(computer.getName());
+        }
+        clearInvocations(nodes.toArray());
+
+        final Queue.Item item = mock(Queue.BuildableItem.class);
+        doReturn(new LabelAtom("pool-label")).when(item).getAssignedLabel();
+        doReturn(List.of(item)).when(listener).getBuildableItems();
+        listener.sampleDemand();
+
+        verify(nodes.get(1)).setTemporaryOfflineCause(isNull());
+        verify(nodes.get(0), never()).setTemporaryOfflineCause(any());
+        assertThat(listener.getElastic().getReleasedNodes()).containsExactly("node-0");
+    }
+
+    @Test
+    void sampleDemandPersistsHistoriesOfConfiguredPools(@TempDir Path dir) throws IOException {
+        final PoolNodeListener listener = create(false);
+        final DemandHistoryFile file = new DemandHistoryFile(dir.resolve("demandHistory.txt"));
+        file.write(Map.of(NodePool.DEFAULT_NAME, new DemandHistory(), "removed", new DemandHistory()));
+        doReturn(file).when(listener.getDescriptor()).getDemandHistoryFile();
+        doReturn(createElasticSnapshot()).when(listener).getSnapshot();
+        doReturn(List.of()).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        listener.sampleDemand();
+
+        assertThat(listener.getElastic().getHistory(NodePool.DEFAULT_NAME)).isNotNull();
+        assertThat(listener.getElastic().getHistory("removed")).isNull();
+        assertThat(file.read().keySet()).containsExactly(NodePool.DEFAULT_NAME);
+    }
+
+    @Test
+    void sampleDemandParksReleasedAgentsIfDisabled() {
+        final PoolNodeListener listener = create(false);
+        doReturn(createElasticSnapshot()).when(listener).getSnapshot();
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(true).when(computer).isIdle();
+        doReturn(List.of(computer)).when(listener).getComputers();
+        doReturn(computer).when(listener).getComputer("node-0");
+        final Queue.Item item = mock(Queue.BuildableItem.class);
+        doReturn(new LabelAtom("pool-label")).when(item).getAssignedLabel();
+        doReturn(List.of(item)).when(listener).getBuildableItems();
+        listener.onConfigurationChange();
+        listener.sampleDemand();
+        clearInvocations(computer);
+
+        doReturn(TestHelper.snapshotBuilder()
+                .poolLabelAtoms(Set.of(new LabelAtom("pool-label")))
+                .keepOffline(true)
+                .build()).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+        listener.sampleDemand();
+
+        verify(computer).setTemporaryOfflineCause(any(PoolNodeListener.PoolOfflineCause.class));
+        assertThat(listener.getElastic().getReleasedNodes()).isEmpty();
+    }
+
+    @Test
+    void onConfigurationChangeResetsOnlyChangedPoolLabels() {
+        final PoolNodeListener listener = create(false);
+        final List<Computer> nodes = Arrays.asList(
+                createComputer("node-0", Collections.singletonList("vdi-pool-test")),
+                createComputer("node-1", Collections.singletonList("master.pool0")),
+                createComputer("node-2", Collections.singletonList("unrelated")));
+        doReturn(Set.of(new LabelAtom("prod"), new LabelAtom("label-a"))).when(listener)
+                .findPoolLabels(nodes.get(0).getNode());
+        doReturn(Set.of(new LabelAtom("master"))).when(listener).findPoolLabels(nodes.get(1).getNode());
+        doReturn(nodes).when(listener).getComputers();
+        listener.onConfigurationChange();
+        verify(listener, never()).resetLabels(any());
+
+        doReturn(Set.of(new LabelAtom("prod"), new LabelAtom("label-b"))).when(listener)
+                .findPoolLabels(nodes.get(0).getNode());
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("other")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(listener).resetLabels(Set.of(new LabelAtom("label-a"), new LabelAtom("label-b")));
+    }
+
+    @Test
+    void onConfigurationChangeSkipsLabelResetIfPoolLabelsAreUnchanged() {
+        final PoolNodeListener listener = create(false);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(Set.of(new LabelAtom("prod"))).when(listener).findPoolLabels(computer.getNode());
+        doReturn(List.of(computer)).when(listener).getComputers();
+        listener.onConfigurationChange();
+
+        doReturn(TestHelper.createSnapshot(false, Set.of(new LabelAtom("other")))).when(listener).getSnapshot();
+        listener.onConfigurationChange();
+
+        verify(listener, never()).resetLabels(any());
+    }
+
+    @Test
+    void addKeepOfflineNodeReconcilesOnlyMatchingComputers() {
+        final PoolNodeListener listener = create(false);
+        final Computer target = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        final Computer other = createComputer("node-1", Collections.singletonList("vdi-pool-test"));
+        doReturn(List.of(target, other)).when(listener).getComputers();
+        doReturn(target).when(listener).getComputer("node-0");
+        listener.reconcile();
+
+        final PoolConfiguration.DescriptorImpl descriptor = listener.getDescriptor();
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        when(descriptor.addKeepOfflineNode("node-0")).thenReturn(true);
+        when(descriptor.getSnapshot()).thenReturn(snapshot.withDefaultKeepOfflineNodes(
+                Set.of(new LabelAtom("keep-offline-node"), new LabelAtom("node-0"))));
+
+        assertThat(listener.addKeepOfflineNode("node-0")).isTrue();
+
+        verify(target).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(other, never()).setTemporaryOfflineCause(any());
+        verify(listener, times(1)).getComputers();
+    }
+
+    @Test
+    void addKeepOfflineNodeSkipsReconcileIfUnchanged() {
+        final PoolNodeListener listener = create(false);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(List.of(computer)).when(listener).getComputers();
+        listener.reconcile();
+
+        assertThat(listener.addKeepOfflineNode("node-0")).isFalse();
+
+        verify(computer, never()).setTemporaryOfflineCause(any());
+        verify(listener, times(1)).getComputers();
+    }
+
+    @Test
+    void addKeepOfflineNodeReconcilesAllComputersForUnindexedLabels() {
+        final PoolNodeListener listener = create(false);
+        final Computer computer = createComputer("node-0", Collections.singletonList("vdi-pool-test"));
+        doReturn(List.of(computer)).when(listener).getComputers();
+        listener.reconcile();
+
+        final PoolConfiguration.DescriptorImpl descriptor = listener.getDescriptor();
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        when(descriptor.addKeepOfflineNode("dynamic")).thenReturn(true);
+        when(descriptor.getSnapshot()).thenReturn(snapshot.withDefaultKeepOfflineNodes(
+                Set.of(new LabelAtom("keep-offline-node"), new LabelAtom("dynamic"))));
+
+        assertThat(listener.addKeepOfflineNode("dynamic")).isTrue();
+
+        verify(listener, times(2)).getComputers();
+    }
+
+    @Test
+    void addKeepOfflineExpressionReconcilesOnlyComputersWithItsLabels() {
+        final PoolNodeListener listener = create(false);
+        final Computer target = createComputer("node-0", Collections.singletonList("linux"));
+        final Computer other = createComputer("node-1", Collections.singletonList("windows"));
+        doReturn(List.of(target, other)).when(listener).getComputers();
+        doReturn(target).when(listener).getComputer("node-0");
+        listener.reconcile();
+
+        final PoolConfiguration.DescriptorImpl descriptor = listener.getDescriptor();
+        final PoolSnapshot snapshot = descriptor.getSnapshot();
+        final Label expression = new LabelExpression.And(new LabelAtom("linux"),
+                new LabelExpression.Not(new LabelAtom("canary")));
+        when(descriptor.addKeepOfflineNode("linux && !canary")).thenReturn(true);
+        when(descriptor.parseExpression("linux && !canary")).thenReturn(expression);
+        when(descriptor.getSnapshot()).thenReturn(snapshot.withKeepOfflineExpressions(List.of(expression)));
+
+        assertThat(listener.addKeepOfflineNode("linux && !canary")).isTrue();
+
+        verify(target).setTemporaryOfflineCause(any(PoolNodeListener.NodeOfflineCause.class));
+        verify(other, never()).setTemporaryOfflineCause(any());
+        verify(listener, times(1)).getComputers();
+    }
+
+    @Test
+    void reconcileIsSafeToNullDescriptor() {
+        final PoolNodeListener listener = create(true);
+        doReturn(null).when(listener).getDescriptor();
+        assertThat(listener.reconcile().isDone()).isTrue();
+    }
+
     private PoolNodeListener create(boolean keepOffline) {
+        return create(keepOffline, new ReconciliationExecutor(0));
+    }
+
+    private PoolNodeListener create(boolean keepOffline, ReconciliationExecutor executor) {
         final PoolConfiguration.DescriptorImpl descriptor = mock(PoolConfiguration.DescriptorImpl.class);
-        when(descriptor.isKeepOffline()).thenReturn(keepOffline);
-        when(descriptor.getKeepOfflineNodesLabelAtoms()).thenReturn(Set.of(new LabelAtom("keep-offline-node")));
+        when(descriptor.getSnapshot())
+                .thenReturn(TestHelper.createSnapshot(keepOffline, Set.of(new LabelAtom("keep-offline-node"))));
 
-        final PoolNodeListener listener = spy(new PoolNodeListener(new TestHelper.TestNodeNames()));
+        final PoolNodeListener listener = mock(PoolNodeListener.class, withSettings()
+                .useConstructor(new TestHelper.TestNodeNames(), executor,
+                        new NodeLabelIndex(TestHelper::simpleParseLabel), 0L)
+                .defaultAnswer(CALLS_REAL_METHODS));
         doReturn(descriptor).when(listener).getDescriptor();
+        doReturn(Collections.emptySet()).when(listener).findPoolLabels(any());
+        doNothing().when(listener).resetLabels(any());
         return listener;
     }
 
+    private PoolSnapshot createElasticSnapshot() {
+        return TestHelper.snapshotBuilder()
+                .poolLabelAtoms(Set.of(new LabelAtom("pool-label")))
+                .keepOffline(true)
+                .releasePolicy(new ReleasePolicy(0, 0, 0, true, 0, 0))
+                .build();
+    }
+
     private Computer createComputer(String name, Collection<String> label) {
         final Computer computer = mock(Computer.class);
+        doReturn(name).when(computer).getName();
         doReturn(TestHelper.simpleParseLabel(String.join(" ", label))).when(computer).getAssignedLabels();
         doReturn(TestHelper.create(name, label)).when(computer).getNode();
         return computer;
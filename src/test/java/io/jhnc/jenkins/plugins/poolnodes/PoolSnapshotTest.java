@@ -0,0 +1,291 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class PoolSnapshotTest {
+    @Test
+    void generationIsIncreasing() {
+        final PoolSnapshot first = PoolSnapshot.builder().build();
+        final PoolSnapshot second = PoolSnapshot.builder().build();
+        assertThat(second.getGeneration()).isGreaterThan(first.getGeneration());
+    }
+
+    @Test
+    void isSafeToNull() {
+        final PoolSnapshot snapshot = PoolSnapshot.builder().build();
+        assertThat(snapshot.findImage("master-0")).isNull();
+        assertThat(snapshot.getPoolLabelAtoms()).isEmpty();
+        assertThat(snapshot.getKeepOfflineNodes()).isEmpty();
+        assertThat(snapshot.getReleasePolicy()).isSameInstanceAs(ReleasePolicy.IMMEDIATE);
+        assertThat(snapshot.getReleasePolicy().isStaged()).isFalse();
+        assertThat(snapshot.isDrainBeforeOffline()).isFalse();
+    }
+
+    @Test
+    void keepsReleasePolicy() {
+        final ReleasePolicy policy = new ReleasePolicy(5, 30, 100);
+        final PoolSnapshot snapshot = PoolSnapshot.builder().drainBeforeOffline(true).releasePolicy(policy).build();
+        assertThat(snapshot.getReleasePolicy()).isSameInstanceAs(policy);
+        assertThat(snapshot.isDrainBeforeOffline()).isTrue();
+    }
+
+    @Test
+    void withKeepOfflineAdvancesGeneration() {
+        final PoolSnapshot snapshot = PoolSnapshot.builder()
+                .masterImages(List.of("master"))
+                .testImages(List.of("test"))
+                .drainBeforeOffline(true)
+                .maintenanceWindows(MaintenanceWindow.parseAll("* 30 0 * * * *"))
+                .build();
+        final PoolSnapshot overlay = snapshot.withKeepOffline(true, Set.of(new LabelAtom("label-0")));
+
+        assertThat(overlay.getGeneration()).isGreaterThan(snapshot.getGeneration());
+        assertThat(overlay.getConfigurationGeneration()).isEqualTo(snapshot.getGeneration());
+        assertThat(overlay.isKeepOffline()).isTrue();
+        assertThat(overlay.getKeepOfflineNodes()).containsExactly(new LabelAtom("label-0"));
+        assertThat(overlay.isDrainBeforeOffline()).isTrue();
+        assertThat(overlay.getMaintenanceWindows()).isSameInstanceAs(snapshot.getMaintenanceWindows());
+        assertThat(snapshot.isKeepOffline()).isFalse();
+    }
+
+    @Test
+    void defaultPoolOnly() {
+        final PoolSnapshot snapshot = TestHelper.createSnapshot(true, Set.of(new LabelAtom("label-0")));
+
+        assertThat(snapshot.getPools()).containsExactly(snapshot.getDefaultPool());
+        assertThat(snapshot.getDefaultPool().getName()).isEqualTo(NodePool.DEFAULT_NAME);
+        assertThat(snapshot.getOfflinePools()).containsExactly(NodePool.DEFAULT_NAME);
+        assertThat(snapshot.isKeepOffline(NodePool.DEFAULT_NAME)).isTrue();
+        assertThat(snapshot.isKeepOffline((String) null)).isFalse();
+    }
+
+    @Test
+    void findsImageOfNamedPool() {
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", false), TestHelper.createPool("windows", false)))
+                .build();
+
+        assertImage(snapshot.findImage("linux-master-0"), "linux", PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("Windows-Test-0"), "windows", PoolImageLabel.TEST);
+        assertImage(snapshot.findImage("master.pool0"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+        assertThat(snapshot.findImage("unrelated")).isNull();
+    }
+
+    @Test
+    void masterPrefixWinsOverLongerTestPrefixOfSamePool() {
+        final PoolSnapshot snapshot = PoolSnapshot.builder()
+                .masterImages(List.of("img"))
+                .testImages(List.of("img-t"))
+                .build();
+
+        assertImage(snapshot.findImage("img-test"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("img-x"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+    }
+
+    @Test
+    void longestPrefixSelectsPool() {
+        final NodePool pool = new NodePool("linux", "vdi-pool-linux", List.of("img-linux"), null, null, false, null);
+        final PoolSnapshot snapshot = PoolSnapshot.builder().testImages(List.of("img")).pools(List.of(pool)).build();
+
+        assertImage(snapshot.findImage("img-linux-0"), "linux", PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("img-windows-0"), NodePool.DEFAULT_NAME, PoolImageLabel.TEST);
+    }
+
+    @Test
+    void patternsAreConsultedIfNoPrefixMatches() {
+        final NodePool pool = new NodePool("windows", "vdi-pool-windows", List.of("re:w.*-master-\\d+"),
+                List.of("w*-test"), null, false, null);
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder().pools(List.of(pool)).build();
+
+        assertImage(snapshot.findImage("win-10-master-1"), "windows", PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("win-10-test"), "windows", PoolImageLabel.TEST);
+        assertImage(snapshot.findImage("master.pool0"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+        assertThat(snapshot.findImage("win-10-master-x")).isNull();
+    }
+
+    @Test
+    void masterPatternsTakePrecedenceOverTestPrefixes() {
+        final NodePool pool = new NodePool("windows", "vdi-pool-windows", List.of("win-*-master"),
+                List.of("win-", "re:win-\\d+-master"), null, false, null);
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder().pools(List.of(pool)).build();
+
+        assertImage(snapshot.findImage("win-10-master"), "windows", PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("win-10-test"), "windows", PoolImageLabel.TEST);
+        assertImage(snapshot.findImage("master.pool0"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+    }
+
+    @Test
+    void findsProdPoolByLabelPrefix() {
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", false)))
+                .build();
+
+        assertThat(snapshot.findProdPool(Set.of(new LabelAtom("vdi-pool-linux-x")))).isEqualTo("linux");
+        assertThat(snapshot.findProdPool(Set.of(new LabelAtom("vdi-pool-test")))).isEqualTo(NodePool.DEFAULT_NAME);
+        assertThat(snapshot.findProdPool(Set.of(new LabelAtom("unrelated")))).isNull();
+    }
+
+    @Test
+    void duplicatePoolNamesKeepFirst() {
+        final NodePool first = TestHelper.createPool("linux", true);
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(first, TestHelper.createPool("linux", false)))
+                .build();
+
+        assertThat(snapshot.getPools()).hasSize(2);
+        assertThat(snapshot.getPool("linux")).isSameInstanceAs(first);
+    }
+
+    @Test
+    void keepOfflineNodesOfAllPools() {
+        final NodePool pool = new NodePool("linux", "vdi-pool-linux", null, null, null, true,
+                Set.of(new LabelAtom("label-1")));
+        final PoolSnapshot snapshot = PoolSnapshot.builder()
+                .keepOfflineNodes(Set.of(new LabelAtom("label-0")))
+                .pools(List.of(pool))
+                .build();
+
+        assertThat(snapshot.getKeepOfflineNodes()).containsExactly(new LabelAtom("label-0"), new LabelAtom("label-1"));
+        assertThat(snapshot.getOfflinePools()).containsExactly("linux");
+    }
+
+    @Test
+    void keepOfflineNodesAreScopedToPool() {
+        final NodePool pool = new NodePool("linux", "vdi-pool-linux", null, null, null, false,
+                Set.of(new LabelAtom("label-1")));
+        final PoolSnapshot snapshot = PoolSnapshot.builder()
+                .keepOfflineNodes(Set.of(new LabelAtom("label-0")))
+                .pools(List.of(pool))
+                .build();
+
+        assertThat(snapshot.getGlobalKeepOfflineNodes()).containsExactly(new LabelAtom("label-0"));
+        assertThat(snapshot.getPoolKeepOfflineNodes("linux")).containsExactly(new LabelAtom("label-1"));
+        assertThat(snapshot.getPoolKeepOfflineNodes(NodePool.DEFAULT_NAME)).isEmpty();
+        assertThat(snapshot.getPoolKeepOfflineNodes(null)).isEmpty();
+        assertThat(snapshot.getPoolKeepOfflineNodes("unknown")).isEmpty();
+    }
+
+    @Test
+    void changedKeepOfflineNodesIncludesLabelsMovedBetweenPools() {
+        final PoolSnapshot before = TestHelper.snapshotBuilder()
+                .pools(List.of(
+                        new NodePool("linux", "vdi-pool-linux", null, null, null, false, Set.of(new LabelAtom("gpu"))),
+                        new NodePool("windows", "vdi-pool-windows", null, null, null, false, Set.of())))
+                .build();
+        final PoolSnapshot after = TestHelper.snapshotBuilder()
+                .pools(List.of(
+                        new NodePool("linux", "vdi-pool-linux", null, null, null, false, Set.of()),
+                        new NodePool("windows", "vdi-pool-windows", null, null, null, false,
+                                Set.of(new LabelAtom("gpu")))))
+                .build();
+
+        assertThat(after.getKeepOfflineNodes()).isEqualTo(before.getKeepOfflineNodes());
+        assertThat(after.hasSameOfflineState(before)).isFalse();
+        assertThat(after.changedKeepOfflineNodes(before)).containsExactly(new LabelAtom("gpu"));
+        assertThat(after.changedKeepOfflineNodes(null)).containsExactly(new LabelAtom("gpu"));
+    }
+
+    @Test
+    void keepOfflineExpressionsAreScopedToPool() {
+        final Node node = TestHelper.create("node-0", List.of("gpu"));
+        final NodePool linux = TestHelper.createPool("linux", false)
+                .withKeepOfflineExpressions(List.of(new LabelExpression.Not(new LabelAtom("arm"))));
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder().pools(List.of(linux)).build();
+
+        assertThat(snapshot.matchesKeepOfflineExpressions(node, "linux")).isTrue();
+        assertThat(snapshot.matchesKeepOfflineExpressions(node, NodePool.DEFAULT_NAME)).isFalse();
+        assertThat(snapshot.matchesKeepOfflineExpressions(node, null)).isFalse();
+        assertThat(snapshot.hasSameKeepOfflineExpressions(
+                TestHelper.snapshotBuilder().pools(List.of(TestHelper.createPool("linux", false))).build())).isFalse();
+    }
+
+    @Test
+    void withKeepOfflineKeepsAllPoolsOffline() {
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .pools(List.of(TestHelper.createPool("linux", false)))
+                .build();
+        final PoolSnapshot overlay = snapshot.withKeepOffline(true, snapshot.getKeepOfflineNodes());
+
+        assertThat(overlay.getOfflinePools()).containsExactly(NodePool.DEFAULT_NAME, "linux");
+        assertThat(overlay.hasSameOfflineState(snapshot)).isFalse();
+        assertThat(snapshot.withKeepOffline(false, Set.of()).hasSameOfflineState(snapshot)).isTrue();
+        assertImage(overlay.findImage("linux-master-0"), "linux", PoolImageLabel.MASTER);
+    }
+
+    @Test
+    void withDefaultKeepOfflineNodesAdvancesGenerationAndKeepsNamedPoolNodes() {
+        final NodePool linux = new NodePool("linux", "vdi-pool-linux", List.of("linux-master"), List.of("linux-test"),
+                Set.of(), false, Set.of(new LabelAtom("shared")));
+        final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+                .keepOfflineNodes(Set.of(new LabelAtom("node-0")))
+                .pools(List.of(linux))
+                .build();
+        final PoolSnapshot updated = snapshot.withDefaultKeepOfflineNodes(Set.of(new LabelAtom("node-1")));
+
+        assertThat(updated.getGeneration()).isGreaterThan(snapshot.getGeneration());
+        assertThat(updated.getConfigurationGeneration()).isEqualTo(snapshot.getConfigurationGeneration());
+        assertThat(updated.getKeepOfflineNodes()).containsExactly(new LabelAtom("node-1"), new LabelAtom("shared"));
+        assertThat(updated.getDefaultPool().getKeepOfflineNodes()).containsExactly(new LabelAtom("node-1"));
+        assertThat(updated.hasSamePoolState(snapshot)).isTrue();
+        assertThat(updated.hasSameOfflineState(snapshot)).isFalse();
+        assertImage(updated.findImage("linux-master-0"), "linux", PoolImageLabel.MASTER);
+    }
+
+    @Test
+    void isDetachedFromSource() {
+        final Set<LabelAtom> labels = new HashSet<>(Set.of(new LabelAtom("label-0")));
+        final PoolSnapshot snapshot = PoolSnapshot.builder()
+                .masterImages(List.of("master"))
+                .testImages(List.of("test"))
+                .poolLabelAtoms(labels)
+                .keepOffline(true)
+                .keepOfflineNodes(labels)
+                .build();
+        labels.add(new LabelAtom("label-1"));
+
+        assertThat(snapshot.getPoolLabelAtoms()).containsExactly(new LabelAtom("label-0"));
+        assertThat(snapshot.getKeepOfflineNodes()).containsExactly(new LabelAtom("label-0"));
+        assertThat(snapshot.isKeepOffline()).isTrue();
+        assertImage(snapshot.findImage("Master-0"), NodePool.DEFAULT_NAME, PoolImageLabel.MASTER);
+        assertImage(snapshot.findImage("Test-0"), NodePool.DEFAULT_NAME, PoolImageLabel.TEST);
+    }
+
+    private static void assertImage(PoolAssignment assignment, String poolName, PoolImageLabel imageType) {
+        assertThat(assignment).isNotNull();
+        assertThat(assignment.getPoolName()).isEqualTo(poolName);
+        assertThat(assignment.getImageType()).isEqualTo(imageType);
+    }
+}
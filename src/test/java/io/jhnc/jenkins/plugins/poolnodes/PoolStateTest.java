@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import hudson.model.labels.LabelExpression;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class PoolStateTest {
+    private static final Label LINUX_NOT_CANARY = new LabelExpression.And(new LabelAtom("linux"),
+            new LabelExpression.Not(new LabelAtom("canary")));
+    private final PoolSnapshot snapshot = TestHelper.snapshotBuilder()
+            .keepOffline(true)
+            .keepOfflineNodes(Set.of(new LabelAtom("keep-offline-node")))
+            .keepOfflineExpressions(List.of(LINUX_NOT_CANARY))
+            .build();
+
+    @Test
+    void writeStreamsClassificationOfAllNodes() throws IOException {
+        final Computer prod = createComputer("node-0", List.of("vdi-pool-test"));
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(prod).getOfflineCause();
+        doReturn(true).when(prod).isOffline();
+
+        final JSONObject result = write(PoolState.Filter.ALL, prod,
+                createComputer("host.is-master", List.of("unrelated")),
+                createComputer("node-1", List.of("unrelated")));
+
+        assertThat(result.getLong("generation")).isEqualTo(snapshot.getGeneration());
+        final JSONArray nodes = result.getJSONArray("nodes");
+        assertThat(nodes.size()).isEqualTo(3);
+
+        final JSONObject node = nodes.getJSONObject(0);
+        assertThat(node.getString("name")).isEqualTo("node-0");
+        assertThat(node.getString("type")).isEqualTo("PRODUCTION");
+        assertThat(node.getString("pool")).isEqualTo(NodePool.DEFAULT_NAME);
+        assertThat(node.getString("state")).isEqualTo("POOL_OFFLINE");
+        assertThat(node.getString("offlineCause")).isEqualTo("PoolOfflineCause");
+        assertThat(node.getBoolean("released")).isFalse();
+        assertThat(node.getBoolean("draining")).isFalse();
+        assertThat(node.getJSONArray("keepOffline")).isEmpty();
+
+        assertThat(nodes.getJSONObject(1).getString("type")).isEqualTo("MASTER");
+        assertThat(nodes.getJSONObject(1).getString("state")).isEqualTo("ONLINE");
+        assertThat(nodes.getJSONObject(2).get("type")).isEqualTo(JSONNull.getInstance());
+    }
+
+    @Test
+    void writeListsMatchedKeepOfflineEntries() throws IOException {
+        final Computer computer = createComputer("node-0", List.of("keep-offline-node", "linux"));
+        doReturn(new PoolNodeListener.NodeOfflineCause()).when(computer).getOfflineCause();
+        doReturn(true).when(computer).isOffline();
+
+        final JSONObject node = write(PoolState.Filter.ALL, computer).getJSONArray("nodes").getJSONObject(0);
+
+        assertThat(node.getString("state")).isEqualTo("NODE_OFFLINE");
+        assertThat(node.getJSONArray("keepOffline")).containsExactly("keep-offline-node",
+                LINUX_NOT_CANARY.getExpression()).inOrder();
+    }
+
+    @Test
+    void writeAppliesFilter() throws IOException {
+        final Computer prod = createComputer("node-0", List.of("vdi-pool-test"));
+        doReturn(new PoolNodeListener.PoolOfflineCause()).when(prod).getOfflineCause();
+        doReturn(true).when(prod).isOffline();
+        final Computer offline = createComputer("node-1", List.of("vdi-pool-test"));
+        doReturn(true).when(offline).isOffline();
+        final Computer[] computers = {prod, offline, createComputer("node-2", List.of("vdi-pool-test")),
+                createComputer("node-3", List.of("unrelated"))};
+
+        assertThat(names(write(PoolState.Filter.parse("production", null), computers)))
+                .containsExactly("node-0", "node-1", "node-2").inOrder();
+        assertThat(names(write(PoolState.Filter.parse("production", "pool_offline, offline"), computers)))
+                .containsExactly("node-0", "node-1").inOrder();
+        assertThat(names(write(PoolState.Filter.parse("none", ""), computers))).containsExactly("node-3");
+        assertThat(names(write(PoolState.Filter.parse("master,test", "online"), computers))).isEmpty();
+    }
+
+    @Test
+    void filterRejectsUnknownValues() {
+        assertThrows(IllegalArgumentException.class, () -> PoolState.Filter.parse("prod", null));
+        assertThrows(IllegalArgumentException.class, () -> PoolState.Filter.parse(null, "busy"));
+    }
+
+    @Test
+    void writeSkipsComputersWithoutNode() throws IOException {
+        final Computer computer = mock(Computer.class);
+        doReturn("node-0").when(computer).getName();
+
+        assertThat(write(PoolState.Filter.ALL, computer).getJSONArray("nodes")).isEmpty();
+    }
+
+    @Test
+    void keepOfflineMatchesLeaveLabelIndexUnchanged() {
+        final NodeLabelIndex labelIndex = new NodeLabelIndex(TestHelper::simpleParseLabel);
+        final PoolState state = new PoolState(snapshot, new TestHelper.TestNodeNames(snapshot), labelIndex,
+                new ElasticRelease(), new NodeDrainer(drained -> { }));
+        final Node node = TestHelper.create("node-0", List.of("keep-offline-node"));
+
+        assertThat(state.getKeepOfflineMatches(node)).containsExactly("keep-offline-node");
+        assertThat(labelIndex.size()).isEqualTo(0);
+
+        labelIndex.update(node);
+        assertThat(state.getKeepOfflineMatches(node)).containsExactly("keep-offline-node");
+        assertThat(labelIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void writeStringEscapesSpecialCharacters() throws IOException {
+        final StringWriter out = new StringWriter();
+        PoolState.writeString(out, "a\"b\\c\nd\u0001");
+
+        assertThat(out.toString()).isEqualTo("\"a\\\"b\\\\c\\u000ad\\u0001\"");
+        assertThat(JSONArray.fromObject("[" + out + "]").getString(0)).isEqualTo("a\"b\\c\nd\u0001");
+    }
+
+    private JSONObject write(PoolState.Filter filter, Computer... computers) throws IOException {
+        final PoolState state = new PoolState(snapshot, new TestHelper.TestNodeNames(snapshot),
+                new NodeLabelIndex(TestHelper::simpleParseLabel), new ElasticRelease(),
+                new NodeDrainer(drained -> { }));
+        final StringWriter out = new StringWriter();
+        state.write(List.of(computers), filter, out);
+        return JSONObject.fromObject(out.toString());
+    }
+
+    private static List<String> names(JSONObject result) {
+        final JSONArray nodes = result.getJSONArray("nodes");
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); ++i) {
+            names.add(nodes.getJSONObject(i).getString("name"));
+        }
+        return names;
+    }
+
+    private static Computer createComputer(String name, Collection<String> labels) {
+        final Computer computer = mock(Computer.class);
+        doReturn(name).when(computer).getName();
+        doReturn(TestHelper.create(name, labels)).when(computer).getNode();
+        return computer;
+    }
+}
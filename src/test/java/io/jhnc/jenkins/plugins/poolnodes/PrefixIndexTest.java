@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class PrefixIndexTest {
+    @Test
+    void findsValueOfPrefix() {
+        final PrefixIndex<String> index = PrefixIndex.compile(Map.of("host.is-master", "a", "master.pool0", "b"));
+        assertThat(index.find("host.is-master")).isEqualTo("a");
+        assertThat(index.find("master.pool0-1fa97cd8")).isEqualTo("b");
+
+        assertThat(index.find("host.is-maste")).isNull();
+        assertThat(index.find("Xhost.is-master")).isNull();
+    }
+
+    @Test
+    void overlappingPrefixesFindLongest() {
+        final PrefixIndex<String> index = PrefixIndex.compile(Map.of("abc", "short", "abcdef", "long"));
+        assertThat(index.find("abcd")).isEqualTo("short");
+        assertThat(index.find("abcdef")).isEqualTo("long");
+        assertThat(index.find("abcdefg")).isEqualTo("long");
+        assertThat(index.find("ab")).isNull();
+    }
+
+    @Test
+    void findIsCaseInsensitive() {
+        final PrefixIndex<String> index = PrefixIndex.compile(Map.of("nOdE37990", "a"));
+        assertThat(index.find("NodE37990.oF.PooL.n900")).isEqualTo("a");
+    }
+
+    @Test
+    void firstValueWinsForSamePrefix() {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("abc", "first");
+        entries.put("ABC", "second");
+        assertThat(PrefixIndex.compile(entries).find("abc")).isEqualTo("first");
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertThat(PrefixIndex.compile(null).find("abc")).isNull();
+        assertThat(PrefixIndex.<String>compile(Map.of()).isEmpty()).isTrue();
+        assertThat(PrefixIndex.compile(Map.of("a", "a")).isEmpty()).isFalse();
+        assertThat(PrefixIndex.compile(Map.of("a", "a")).find(null)).isNull();
+        assertThat(PrefixIndex.compile(Map.of("a", "a")).find("")).isNull();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class PrefixMatcherTest {
+    @Test
+    void matchesPrefix() {
+        final PrefixMatcher matcher = PrefixMatcher.compile(List.of("host.is-master", "master.pool0"));
+        assertThat(matcher.matches("host.is-master")).isTrue();
+        assertThat(matcher.matches("host.is-master.sub-string")).isTrue();
+        assertThat(matcher.matches("master.pool0-1fa97cd8")).isTrue();
+
+        assertThat(matcher.matches("host.is-maste")).isFalse();
+        assertThat(matcher.matches("Xhost.is-master")).isFalse();
+        assertThat(matcher.matches("master.pool1")).isFalse();
+    }
+
+    @Test
+    void matchIsCaseInsensitive() {
+        final PrefixMatcher matcher = PrefixMatcher.compile(List.of("nOdE37990", "HOST"));
+        assertThat(matcher.matches("NodE37990.oF.PooL.n900")).isTrue();
+        assertThat(matcher.matches("node37990")).isTrue();
+        assertThat(matcher.matches("host-0")).isTrue();
+    }
+
+    @Test
+    void overlappingPrefixesMatchShortest() {
+        final PrefixMatcher matcher = PrefixMatcher.compile(List.of("abcdef", "abc", "abcxyz"));
+        assertThat(matcher.matches("abc")).isTrue();
+        assertThat(matcher.matches("abcd")).isTrue();
+        assertThat(matcher.matches("ab")).isFalse();
+    }
+
+    @Test
+    void emptyMatcherMatchesNothing() {
+        assertThat(PrefixMatcher.compile(null).matches("abc")).isFalse();
+        assertThat(PrefixMatcher.compile(Collections.emptyList()).matches("abc")).isFalse();
+        assertThat(PrefixMatcher.compile(Collections.emptyList()).isEmpty()).isTrue();
+        assertThat(PrefixMatcher.compile(List.of("a")).isEmpty()).isFalse();
+    }
+
+    @Test
+    void isSafeToNullOrEmpty() {
+        final PrefixMatcher matcher = PrefixMatcher.compile(List.of("abc"));
+        assertThat(matcher.matches(null)).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+    }
+}
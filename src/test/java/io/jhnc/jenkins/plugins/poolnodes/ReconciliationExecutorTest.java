@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReconciliationExecutorTest {
+    @Test
+    void synchronousExecutorRunsInline() {
+        final ReconciliationExecutor executor = new ReconciliationExecutor(0);
+        final List<String> executed = new ArrayList<>();
+        final Map<Computer, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put(mock(Computer.class), () -> executed.add("a"));
+        tasks.put(mock(Computer.class), () -> executed.add("b"));
+
+        final ReconciliationProgress progress = executor.execute(tasks);
+
+        assertThat(executor.isAsynchronous()).isFalse();
+        assertThat(executed).containsExactly("a", "b").inOrder();
+        assertThat(progress.isDone()).isTrue();
+        assertThat(progress.getCompleted()).isEqualTo(2);
+        assertThat(progress.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyTasksAreDone() {
+        assertThat(new ReconciliationExecutor(2).execute(Collections.emptyMap()).isDone()).isTrue();
+    }
+
+    @Test
+    void failingTaskCompletesProgress() {
+        final ReconciliationExecutor executor = new ReconciliationExecutor(0);
+        final ReconciliationProgress progress = executor.execute(Map.of(mock(Computer.class), () -> {
+            throw new IllegalStateException("expected");
+        }));
+        assertThat(progress.isDone()).isTrue();
+    }
+
+    @Test
+    void asynchronousExecutorKeepsOrderPerComputer() throws Exception {
+        final ReconciliationExecutor executor = new ReconciliationExecutor(4);
+        final Computer computer = mock(Computer.class);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        final List<ReconciliationProgress> passes = new ArrayList<>();
+
+        for (int i = 0; i < 100; ++i) {
+            final int pass = i;
+            passes.add(executor.execute(Map.of(computer, () -> executed.add(pass))));
+        }
+        for (final ReconciliationProgress progress : passes) {
+            progress.getCompletion().get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(executed).containsExactlyElementsIn(IntStream.range(0, 100).boxed().collect(Collectors.toList()))
+                .inOrder();
+    }
+
+    @Test
+    void asynchronousExecutorIsBounded() throws Exception {
+        final ReconciliationExecutor executor = new ReconciliationExecutor(2);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final Map<Computer, Runnable> tasks = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20; ++i) {
+            tasks.put(mock(Computer.class), () -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        }
+
+        final ReconciliationProgress progress = executor.execute(tasks);
+        progress.getCompletion().get(30, TimeUnit.SECONDS);
+
+        assertThat(executor.isAsynchronous()).isTrue();
+        assertThat(progress.getCompleted()).isEqualTo(20);
+        assertThat(maxActive.get()).isAtMost(2);
+    }
+}
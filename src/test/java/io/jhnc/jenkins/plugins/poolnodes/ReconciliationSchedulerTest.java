@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class ReconciliationSchedulerTest {
+    @Test
+    void undebouncedSchedulerRunsInline() {
+        final List<ReconciliationScheduler.Batch> batches = new ArrayList<>();
+        final ReconciliationScheduler scheduler = new ReconciliationScheduler(0, batch -> {
+            batches.add(batch);
+            return ReconciliationProgress.done();
+        });
+
+        scheduler.request("node-0");
+        scheduler.requestAll();
+
+        assertThat(scheduler.isDebounced()).isFalse();
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0).isAll()).isFalse();
+        assertThat(batches.get(0).getNodeNames()).containsExactly("node-0");
+        assertThat(batches.get(1).isAll()).isTrue();
+        assertThat(batches.get(1).getNodeNames()).isEmpty();
+    }
+
+    @Test
+    void shutdownSchedulerIgnoresRequests() {
+        final List<ReconciliationScheduler.Batch> batches = new ArrayList<>();
+        final ReconciliationScheduler scheduler = new ReconciliationScheduler(100, batch -> {
+            batches.add(batch);
+            return ReconciliationProgress.done();
+        });
+
+        scheduler.shutdown();
+        scheduler.request("node-0");
+        scheduler.requestAll();
+
+        assertThat(scheduler.isPending()).isFalse();
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void debouncedSchedulerCoalescesRequests() throws Exception {
+        final List<ReconciliationScheduler.Batch> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch passed = new CountDownLatch(1);
+        final ReconciliationScheduler scheduler = new ReconciliationScheduler(500, batch -> {
+            batches.add(batch);
+            passed.countDown();
+            return ReconciliationProgress.done();
+        });
+
+        for (int i = 0; i < 100; ++i) {
+            scheduler.request("node-" + (i % 10));
+        }
+
+        assertThat(scheduler.isPending()).isTrue();
+        assertThat(passed.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0).isAll()).isFalse();
+        assertThat(batches.get(0).getNodeNames()).hasSize(10);
+    }
+
+    @Test
+    void debouncedSchedulerMergesFullRequest() throws Exception {
+        final List<ReconciliationScheduler.Batch> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch passed = new CountDownLatch(1);
+        final ReconciliationScheduler scheduler = new ReconciliationScheduler(100, batch -> {
+            batches.add(batch);
+            passed.countDown();
+            return ReconciliationProgress.done();
+        });
+
+        scheduler.request("node-0");
+        scheduler.requestAll();
+
+        assertThat(passed.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0).isAll()).isTrue();
+    }
+
+    @Test
+    void debouncedSchedulerRunsOnePassAtATime() throws Exception {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final CountDownLatch passed = new CountDownLatch(2);
+        final CountDownLatch firstPassStarted = new CountDownLatch(1);
+        final ReconciliationScheduler scheduler = new ReconciliationScheduler(10, batch -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            final ReconciliationProgress progress = new ReconciliationProgress(1);
+            firstPassStarted.countDown();
+            new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                passed.countDown();
+                progress.markCompleted();
+            }).start();
+            return progress;
+        });
+
+        scheduler.request("node-0");
+        assertThat(firstPassStarted.await(30, TimeUnit.SECONDS)).isTrue();
+        scheduler.request("node-1");
+
+        assertThat(passed.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxActive.get()).isEqualTo(1);
+    }
+}
@@ -31,6 +31,8 @@ import hudson.model.labels.LabelAtom;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -38,6 +40,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 final class TestHelper {
+    public static final List<String> MASTER_IMAGES = List.of("host.is-master", "master.pool0", "master.pool1", "nOdE37990");
+    public static final List<String> TEST_IMAGES = List.of("host.is-test", "test.pool0", "test.pool1", "NoDe51843");
+
     private TestHelper() {
     }
 
@@ -60,25 +65,40 @@ final class TestHelper {
                 .collect(Collectors.toSet()));
     }
 
+    public static PoolSnapshot.Builder snapshotBuilder() {
+        return PoolSnapshot.builder().masterImages(MASTER_IMAGES).testImages(TEST_IMAGES);
+    }
+
+    public static PoolSnapshot createSnapshot(boolean keepOffline, Set<LabelAtom> keepOfflineNodes) {
+        return snapshotBuilder().keepOffline(keepOffline).keepOfflineNodes(keepOfflineNodes).build();
+    }
+
+    public static NodePool createPool(String name, boolean keepOffline) {
+        return new NodePool(name, "vdi-pool-" + name, List.of(name + "-master"), List.of(name + "-test"),
+                Set.of(new LabelAtom(name + "-label")), keepOffline, Collections.emptySet());
+    }
+
     private static Set<LabelAtom> labelStringToAtom(Collection<String> labels) {
         return labels.stream().map(LabelAtom::new).collect(Collectors.toSet());
     }
 
 
     public static class TestNodeNames extends NodeNames {
-        private final PoolConfiguration.DescriptorImpl descriptor;
+        private final PoolSnapshot snapshot;
 
         public TestNodeNames() {
+            this(createSnapshot(false, Collections.emptySet()));
+        }
+
+        public TestNodeNames(PoolSnapshot snapshot) {
             super(TestHelper::simpleParseLabel);
-            this.descriptor = mock(PoolConfiguration.DescriptorImpl.class);
-            when(descriptor.getMasterImageNames()).thenReturn(Arrays.asList("host.is-master", "master.pool0", "master.pool1", "nOdE37990"));
-            when(descriptor.getTestImageNames()).thenReturn(Arrays.asList("host.is-test", "test.pool0", "test.pool1", "NoDe51843"));
+            this.snapshot = snapshot;
         }
 
         @CheckForNull
         @Override
-        protected PoolConfiguration.DescriptorImpl getDescriptor() {
-            return descriptor;
+        protected PoolSnapshot getSnapshot() {
+            return snapshot;
         }
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021-2026 jhnc-oss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.jhnc.jenkins.plugins.poolnodes;
+
+import hudson.model.Computer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WaveReleaseTest {
+    private final ScheduledExecutorService timer = mock(ScheduledExecutorService.class);
+    private final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    private final List<List<Computer>> waves = new ArrayList<>();
+
+    @Test
+    void releasesFirstWaveImmediately() {
+        final WaveRelease release = create(5, new ReleasePolicy(2, 10, 0), () -> 0);
+        release.start();
+
+        assertThat(waves).hasSize(1);
+        assertThat(waves.get(0)).hasSize(2);
+        assertThat(release.getRemaining()).isEqualTo(3);
+        verify(timer).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void releasesAllComputersInWaves() {
+        final List<Computer> computers = createComputers(5);
+        final WaveRelease release = new WaveRelease(computers, new ReleasePolicy(2, 10, 0), waves::add, () -> 0, timer);
+        release.start();
+        runScheduled();
+        runScheduled();
+
+        assertThat(waves).hasSize(3);
+        assertThat(waves.stream().flatMap(List::stream).collect(Collectors.toList()))
+                .containsExactlyElementsIn(computers).inOrder();
+        assertThat(release.isDone()).isTrue();
+    }
+
+    @Test
+    void holdsWaveWhileQueueIsTooLong() {
+        final AtomicInteger queueLength = new AtomicInteger(10);
+        final WaveRelease release = create(3, new ReleasePolicy(2, 10, 5), queueLength::get);
+        release.start();
+
+        assertThat(waves).isEmpty();
+        assertThat(release.getRemaining()).isEqualTo(3);
+
+        queueLength.set(5);
+        runScheduled();
+        assertThat(waves).hasSize(1);
+    }
+
+    @Test
+    void cancelStopsRelease() {
+        final WaveRelease release = create(5, new ReleasePolicy(2, 10, 0), () -> 0);
+        release.start();
+        release.cancel();
+
+        assertThat(release.isDone()).isTrue();
+        assertThat(release.getRemaining()).isEqualTo(0);
+        verify(future).cancel(false);
+    }
+
+    @Test
+    void singleWaveSchedulesNothing() {
+        final WaveRelease release = create(2, new ReleasePolicy(5, 10, 0), () -> 0);
+        release.start();
+
+        assertThat(waves).hasSize(1);
+        assertThat(release.isDone()).isTrue();
+        verify(timer, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private WaveRelease create(int count, ReleasePolicy policy, IntSupplier queueLength) {
+        return new WaveRelease(createComputers(count), policy, waves::add, queueLength, timer);
+    }
+
+    private List<Computer> createComputers(int count) {
+        doReturn(future).when(timer).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        return IntStream.range(0, count).mapToObj(i -> mock(Computer.class)).collect(Collectors.toList());
+    }
+
+    private void runScheduled() {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer, atLeastOnce()).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+        captor.getValue().run();
+    }
+}